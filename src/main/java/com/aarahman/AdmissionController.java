@@ -0,0 +1,283 @@
+package com.aarahman;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Info;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.aarahman.CommonUtil.nvl;
+import static com.aarahman.CommonUtil.safeEval;
+
+/**
+ * AdmissionController keeps container launches on one Docker host within the memory and CPUs of the daemon,
+ * so a burst of launches queues up instead of driving the daemon out of memory.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>The daemon's total memory and CPU count are read once with the info API when the controller is created.
+ *       A fraction of the memory is kept free for the daemon and the host</li>
+ *   <li>Every container launched by this JVM reserves its memory and CPUs until it is removed</li>
+ *   <li>Running containers of other runs on the same daemon are found by their library label and counted with the
+ *       default demand of their role. That count is refreshed at most every few seconds, by one waiting launch at
+ *       a time and without holding the lock, so a slow daemon never stalls releases</li>
+ *   <li>Launches that do not fit wait in first-in, first-out order, so a large request is not starved by small
+ *       ones. A launch that still does not fit when its timeout expires is rejected</li>
+ *   <li>A launch that needs more than the whole daemon is capped at the daemon's capacity, so it is admitted
+ *       once the daemon is otherwise idle instead of never</li>
+ *   <li>If the daemon does not report its resources, every launch is admitted</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class AdmissionController {
+
+    /** How long the count of other runs' containers is reused before the daemon is asked again */
+    private static final Duration EXTERNAL_USAGE_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * Memory and CPUs a container needs.
+     */
+    static final class Demand {
+
+        final long memoryBytes;
+
+        final double cpus;
+
+        Demand(long memoryBytes, double cpus) {
+            this.memoryBytes = memoryBytes;
+            this.cpus = cpus;
+        }
+
+        Demand plus(Demand other) {
+            return new Demand(memoryBytes + other.memoryBytes, cpus + other.cpus);
+        }
+
+        Demand min(Demand other) {
+            return new Demand(Math.min(memoryBytes, other.memoryBytes), Math.min(cpus, other.cpus));
+        }
+
+        @Override
+        public String toString() {
+            return memoryBytes / (1024 * 1024) + " MB, " + cpus + " CPUs";
+        }
+    }
+
+    /**
+     * Resources admitted for one container, held until {@link #release()} is called.
+     */
+    final class Reservation {
+
+        private final Demand demand;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(Demand demand) {
+            this.demand = demand;
+        }
+
+        /**
+         * Gives the reserved resources back and wakes up queued launches. Releasing twice has no effect.
+         */
+        void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            lock.lock();
+            try {
+                reservedMemoryBytes -= demand.memoryBytes;
+                reservedCpus -= demand.cpus;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final long memoryCapacityBytes;
+
+    private final double cpuCapacity;
+
+    private final Supplier<Demand> externalUsageReader;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    private final Deque<Object> queue = new ArrayDeque<>();
+
+    private long reservedMemoryBytes;
+
+    private double reservedCpus;
+
+    private Demand externalUsage = new Demand(0, 0);
+
+    private long externalUsageReadAt;
+
+    private boolean refreshingExternalUsage;
+
+    /**
+     * Creates an admission controller for one Docker host and reads the host's memory and CPUs.
+     *
+     * @param dockerClient Docker client of the host
+     * @param memoryFraction Fraction of the daemon's memory containers may use
+     * @param demandOfRole Default demand of a container by its role label value, used for other runs' containers
+     */
+    AdmissionController(DockerClient dockerClient, double memoryFraction, Function<String, Demand> demandOfRole) {
+        this(readCapacity(dockerClient, memoryFraction), () -> readExternalUsage(dockerClient, demandOfRole));
+    }
+
+    /**
+     * Creates an admission controller with a known capacity.
+     *
+     * @param capacity Memory and CPUs available for containers, or null to admit every launch
+     * @param externalUsageReader Reads the demand of containers not launched through this controller
+     */
+    AdmissionController(Demand capacity, Supplier<Demand> externalUsageReader) {
+        this.memoryCapacityBytes = capacity == null ? 0 : capacity.memoryBytes;
+        this.cpuCapacity = capacity == null ? 0 : capacity.cpus;
+        this.externalUsageReader = externalUsageReader;
+    }
+
+    /**
+     * Reserves resources for a container, waiting in line until they are free.
+     *
+     * @param description What is launched, used in the log
+     * @param demand Memory and CPUs the container needs
+     * @param timeout Maximum time to wait for the resources
+     * @return The reservation, or null if the launch was rejected
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    Reservation admit(String description, Demand demand, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Object ticket = new Object();
+        boolean waitLogged = false;
+        lock.lockInterruptibly();
+        try {
+            if (memoryCapacityBytes <= 0) {
+                return reserve(demand);
+            }
+            Demand capacity = new Demand(memoryCapacityBytes, cpuCapacity);
+            if (demand.memoryBytes > memoryCapacityBytes || demand.cpus > cpuCapacity) {
+                log.warn("{} needs {}, more than the daemon has for containers ({}). It waits until the daemon is idle",
+                        description, demand, capacity);
+                demand = demand.min(capacity);
+            }
+            queue.addLast(ticket);
+            while (true) {
+                refreshExternalUsage();
+                if (queue.peekFirst() == ticket && fits(demand)) {
+                    return reserve(demand);
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    log.error("Rejected {}: not enough free resources within {}. {}", description, timeout, describeUsage());
+                    return null;
+                }
+                if (!waitLogged) {
+                    log.info("Queued {} until {} is free. {}", description, demand, describeUsage());
+                    waitLogged = true;
+                }
+                // Woken up by every release, and regularly to pick up containers of other runs that went away
+                changed.awaitNanos(Math.min(remainingNanos, EXTERNAL_USAGE_REFRESH_INTERVAL.toNanos()));
+            }
+        } finally {
+            if (queue.remove(ticket)) {
+                changed.signalAll();
+            }
+            lock.unlock();
+        }
+    }
+
+    private Reservation reserve(Demand demand) {
+        reservedMemoryBytes += demand.memoryBytes;
+        reservedCpus += demand.cpus;
+        return new Reservation(demand);
+    }
+
+    private boolean fits(Demand demand) {
+        return reservedMemoryBytes + externalUsage.memoryBytes + demand.memoryBytes <= memoryCapacityBytes
+                && reservedCpus + externalUsage.cpus + demand.cpus <= cpuCapacity;
+    }
+
+    private String describeUsage() {
+        return "In use: " + (reservedMemoryBytes + externalUsage.memoryBytes) / (1024 * 1024) + " of "
+                + memoryCapacityBytes / (1024 * 1024) + " MB, " + (reservedCpus + externalUsage.cpus) + " of " + cpuCapacity + " CPUs";
+    }
+
+    /**
+     * Returns the number of launches waiting for resources.
+     *
+     * @return Number of queued launches
+     */
+    int getQueuedLaunches() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes the demand of other runs' containers if it is older than the refresh interval.
+     * The caller holds the lock once. The lock is given up while the daemon is asked, and only one thread asks
+     * at a time; the others keep using the last known usage.
+     */
+    private void refreshExternalUsage() {
+        if (refreshingExternalUsage
+                || (externalUsageReadAt != 0 && System.nanoTime() - externalUsageReadAt < EXTERNAL_USAGE_REFRESH_INTERVAL.toNanos())) {
+            return;
+        }
+        refreshingExternalUsage = true;
+        Demand usage = null;
+        lock.unlock();
+        try {
+            usage = externalUsageReader.get();
+        } finally {
+            lock.lock();
+            refreshingExternalUsage = false;
+            externalUsageReadAt = System.nanoTime();
+        }
+        if (usage != null) {
+            externalUsage = usage;
+            changed.signalAll();
+        }
+    }
+
+    private static Demand readCapacity(DockerClient dockerClient, double memoryFraction) {
+        Info info = safeEval(() -> dockerClient.infoCmd().exec());
+        if (info == null || info.getMemTotal() == null || info.getNCPU() == null) {
+            log.warn("The Docker daemon did not report its memory and CPUs. Launches are not limited");
+            return null;
+        }
+        Demand capacity = new Demand((long) (info.getMemTotal() * memoryFraction), info.getNCPU());
+        log.info("Admission control: {} available for containers", capacity);
+        return capacity;
+    }
+
+    private static Demand readExternalUsage(DockerClient dockerClient, Function<String, Demand> demandOfRole) {
+        List<Container> containers = nvl(safeEval(() -> dockerClient.listContainersCmd()
+                .withLabelFilter(Collections.singletonList(ResourceLabels.libraryFilter()))
+                .exec()), Collections.emptyList());
+        Demand usage = new Demand(0, 0);
+        for (Container container : containers) {
+            if (!ResourceLabels.isCurrentRun(container.getLabels()) && container.getLabels() != null) {
+                usage = usage.plus(demandOfRole.apply(container.getLabels().get(ResourceLabels.ROLE)));
+            }
+        }
+        return usage;
+    }
+}
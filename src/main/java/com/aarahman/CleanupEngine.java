@@ -0,0 +1,128 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CleanupEngine removes Docker resources (containers, networks, images) in parallel instead of one blocking
+ * round trip after another.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>At most {@code parallelism} removals run at the same time, so a large cleanup does not flood the daemon</li>
+ *   <li>Every removal has its own timeout, counted from when it starts rather than from when it was queued.
+ *       The caller stops waiting for a removal that exceeds it and reports it as timed out. An interrupt would
+ *       not abort the blocking socket read of a hung Docker call, so the call is abandoned on its own thread
+ *       and its place is given to the next removal</li>
+ *   <li>Failures are collected, not thrown, and reported together with the successes in a {@link CleanupResult}</li>
+ *   <li>All threads are daemon or virtual threads, so the engine never keeps the JVM alive</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class CleanupEngine {
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    private final ScheduledExecutorService watchdog =
+            Executors.newSingleThreadScheduledExecutor(DockerExecutors.newDaemonThreadFactory("docknium-cleanup-watchdog"));
+
+    private final Duration operationTimeout;
+
+    /**
+     * Creates a cleanup engine.
+     *
+     * @param parallelism Maximum number of concurrent removals
+     * @param operationTimeout Maximum duration of one removal
+     * @param virtualThreads true to run the removals on virtual threads when the JVM supports them
+     */
+    CleanupEngine(int parallelism, Duration operationTimeout, boolean virtualThreads) {
+        // Unbounded, so abandoned removals never hold up the next ones. The semaphore limits the parallelism
+        this.executor = DockerExecutors.newCachedExecutor("docknium-cleanup", virtualThreads);
+        this.permits = new Semaphore(Math.max(1, parallelism));
+        this.operationTimeout = operationTimeout;
+    }
+
+    /**
+     * Removes the given resources in parallel and waits until every removal has finished or timed out.
+     *
+     * @param <T> Type of the resources
+     * @param description What is cleaned up, used in the result and the log
+     * @param resources Resources to remove
+     * @param resourceId Returns the ID of a resource, used in the result and the log
+     * @param removal Removes one resource, failing with an exception if it cannot
+     * @return The aggregated result
+     */
+    <T> CleanupResult removeAll(String description, Collection<T> resources, Function<T, String> resourceId, Consumer<T> removal) {
+        CleanupResult result = new CleanupResult(description);
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> removals = new ArrayList<>();
+        for (T resource : resources) {
+            permits.acquireUninterruptibly();
+            removals.add(removeWithTimeout(resource, resourceId.apply(resource), removal, result));
+        }
+        CompletableFuture.allOf(removals.toArray(new CompletableFuture[0])).join();
+        result.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        if (!resources.isEmpty()) {
+            log.info("Cleanup of {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * Starts one removal, holding a permit. The removal and its timeout race to finish it: the first one
+     * records the result, gives the permit back and completes the returned future.
+     */
+    private <T> CompletableFuture<Void> removeWithTimeout(T resource, String id, Consumer<T> removal, CleanupResult result) {
+        CompletableFuture<Void> outcome = new CompletableFuture<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+            if (finished.compareAndSet(false, true)) {
+                log.warn("Removal of {} timed out after {}. It is no longer waited for", id, operationTimeout);
+                result.recordTimedOut(id);
+                permits.release();
+                outcome.complete(null);
+            }
+        }, operationTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        executor.execute(() -> {
+            Exception failure = null;
+            try {
+                removal.accept(resource);
+            } catch (Exception ex) {
+                failure = ex;
+            }
+            if (!finished.compareAndSet(false, true)) {
+                log.debug("Abandoned removal of {} returned after its timeout", id);
+                return;
+            }
+            timeout.cancel(false);
+            if (failure == null) {
+                result.recordRemoved();
+            } else {
+                log.warn("Could not remove {}: {}", id, failure.getMessage());
+                result.recordFailed(id, String.valueOf(failure.getMessage()));
+            }
+            permits.release();
+            outcome.complete(null);
+        });
+        return outcome;
+    }
+}
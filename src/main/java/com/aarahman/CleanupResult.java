@@ -0,0 +1,92 @@
+package com.aarahman;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CleanupResult aggregates the outcome of one cleanup run over a set of Docker resources
+ * (containers, networks or images).
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Getter
+public class CleanupResult {
+
+    /** What was cleaned up, for example "dangling images" */
+    private final String description;
+
+    private int attempted;
+
+    private int removed;
+
+    private int failed;
+
+    private int timedOut;
+
+    /** Disk space freed by prune operations, in bytes */
+    private long spaceReclaimed;
+
+    private Duration elapsed = Duration.ZERO;
+
+    private final List<String> failures = new ArrayList<>();
+
+    CleanupResult(String description) {
+        this.description = description;
+    }
+
+    synchronized void recordRemoved() {
+        attempted++;
+        removed++;
+    }
+
+    synchronized void recordPruned(int count, long bytes) {
+        attempted += count;
+        removed += count;
+        spaceReclaimed += bytes;
+    }
+
+    synchronized void recordFailed(String resourceId, String reason) {
+        attempted++;
+        failed++;
+        failures.add(resourceId + ": " + reason);
+    }
+
+    synchronized void recordTimedOut(String resourceId) {
+        attempted++;
+        timedOut++;
+        failures.add(resourceId + ": timed out");
+    }
+
+    void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns why the resources that could not be removed were left behind.
+     *
+     * @return One "resource: reason" entry per failed or timed out removal
+     */
+    public synchronized List<String> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    /**
+     * Checks whether every attempted removal succeeded.
+     *
+     * @return true if nothing failed or timed out
+     */
+    public boolean isSuccessful() {
+        return failed == 0 && timedOut == 0;
+    }
+
+    @Override
+    public String toString() {
+        return description + ": " + removed + "/" + attempted + " removed, " + failed + " failed, "
+                + timedOut + " timed out, " + spaceReclaimed / (1024 * 1024) + " MB reclaimed in " + elapsed.toMillis() + " ms";
+    }
+}
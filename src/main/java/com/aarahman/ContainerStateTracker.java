@@ -0,0 +1,246 @@
+package com.aarahman;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ContainerStateTracker keeps the state of the containers created by {@link SeleniumGridUtil} up to date
+ * from the Docker daemon's events stream, so state checks are map lookups instead of inspect or list calls.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>One long-lived events subscription feeds an in-memory state table. The daemon only sends container
+ *       events of containers labelled with the current run ID (see {@link ResourceLabels})</li>
+ *   <li>Only containers registered through {@link #track(String)} are kept, events of other containers are ignored</li>
+ *   <li>A subscription that ends or fails is re-established from the time of the last event received,
+ *       so no transition is lost while reconnecting</li>
+ *   <li>A container is dropped from the table when the library removes it, so the table does not grow with
+ *       pooled and recycled nodes. A container removed by someone else stays as DESTROYED until then</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class ContainerStateTracker implements Closeable {
+
+    /**
+     * Lifecycle states of a tracked container, in the order a healthy container goes through them.
+     */
+    enum State {
+        CREATED, STARTED, HEALTHY, UNHEALTHY, DIED, DESTROYED;
+
+        boolean isRunning() {
+            return this == STARTED || this == HEALTHY || this == UNHEALTHY;
+        }
+    }
+
+    /** Wait before an ended events subscription is re-established */
+    private static final Duration RESUBSCRIBE_DELAY = Duration.ofSeconds(1);
+
+    private final DockerClient dockerClient;
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    private volatile boolean subscribed;
+
+    private volatile boolean closed;
+
+    /** Time of the last event received (or of the first subscription), from which a resubscription replays events */
+    private volatile long lastEventEpochSecond;
+
+    private volatile ResultCallback.Adapter<Event> subscription;
+
+    ContainerStateTracker(DockerClient dockerClient) {
+        this.dockerClient = dockerClient;
+    }
+
+    /**
+     * Starts the events subscription. Calling this on a running tracker has no effect.
+     */
+    synchronized void start() {
+        if (subscribed) {
+            return;
+        }
+        closed = false;
+        lastEventEpochSecond = Instant.now().getEpochSecond();
+        subscribe(lastEventEpochSecond);
+    }
+
+    /**
+     * Checks whether the events subscription is running, which is when the state table can be trusted.
+     *
+     * @return true if the tracker receives events
+     */
+    boolean isSubscribed() {
+        return subscribed;
+    }
+
+    /**
+     * Registers a container created by this library. Its state starts as CREATED unless an event arrived first.
+     *
+     * @param containerId ID of the container
+     */
+    void track(String containerId) {
+        if (containerId != null) {
+            states.putIfAbsent(containerId, State.CREATED);
+        }
+    }
+
+    /**
+     * Forgets a container the library has removed. Later events of the container are ignored.
+     *
+     * @param containerId ID of the container
+     */
+    void untrack(String containerId) {
+        if (containerId != null) {
+            states.remove(containerId);
+        }
+    }
+
+    /**
+     * Returns the last known state of a tracked container.
+     *
+     * @param containerId ID of the container
+     * @return The state, or null if the container is not tracked
+     */
+    State getState(String containerId) {
+        return containerId == null ? null : states.get(containerId);
+    }
+
+    /**
+     * Returns the tracked containers that exist and have not been removed.
+     *
+     * @return IDs of the containers that are not DESTROYED
+     */
+    List<String> getLiveContainers() {
+        List<String> containerIds = new ArrayList<>();
+        states.forEach((containerId, state) -> {
+            if (state != State.DESTROYED) {
+                containerIds.add(containerId);
+            }
+        });
+        return containerIds;
+    }
+
+    /**
+     * Ends the events subscription. The state table is kept.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        subscribed = false;
+        if (subscription != null) {
+            try {
+                subscription.close();
+            } catch (Exception ex) {
+                log.debug("Unable to close Docker events subscription", ex);
+            }
+            subscription = null;
+        }
+    }
+
+    private synchronized void subscribe(long sinceEpochSecond) {
+        if (closed) {
+            return;
+        }
+        try {
+            subscription = dockerClient.eventsCmd()
+                    .withEventTypeFilter(EventType.CONTAINER)
+                    .withLabelFilter(ResourceLabels.currentRunFilter())
+                    .withSince(String.valueOf(sinceEpochSecond))
+                    .exec(new ResultCallback.Adapter<Event>() {
+                        @Override
+                        public void onNext(Event event) {
+                            onEvent(event);
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            log.debug("Docker events subscription failed", throwable);
+                            resubscribe();
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            resubscribe();
+                        }
+                    });
+            subscribed = true;
+            log.debug("Subscribed to Docker container events since {}", sinceEpochSecond);
+        } catch (Exception ex) {
+            subscribed = false;
+            log.warn("Unable to subscribe to Docker events. Container state will be read from the daemon: {}", ex.getMessage());
+        }
+    }
+
+    private void resubscribe() {
+        subscribed = false;
+        if (!closed) {
+            log.info("Docker events subscription ended. Resubscribing");
+            try {
+                // Keeps an unreachable daemon from turning reconnects into a busy loop
+                Thread.sleep(RESUBSCRIBE_DELAY.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            subscribe(lastEventEpochSecond);
+        }
+    }
+
+    private void onEvent(Event event) {
+        if (event.getTime() != null) {
+            lastEventEpochSecond = Math.max(lastEventEpochSecond, event.getTime());
+        }
+        String containerId = event.getId();
+        State state = toState(event.getAction() != null ? event.getAction() : event.getStatus());
+        if (containerId == null || state == null) {
+            return;
+        }
+        // Only updates tracked containers. A replayed event after a resubscription must not move a removed
+        // container back to life
+        states.computeIfPresent(containerId, (id, previous) -> {
+            if (previous == State.DESTROYED) {
+                return previous;
+            }
+            log.debug("Container {} {} -> {}", id, previous, state);
+            return state;
+        });
+    }
+
+    private static State toState(String action) {
+        if (action == null) {
+            return null;
+        }
+        if (action.startsWith("health_status")) {
+            return action.endsWith("unhealthy") ? State.UNHEALTHY : State.HEALTHY;
+        }
+        switch (action) {
+            case "create":
+                return State.CREATED;
+            case "start":
+            case "restart":
+            case "unpause":
+                return State.STARTED;
+            case "die":
+            case "oom":
+                return State.DIED;
+            case "destroy":
+                return State.DESTROYED;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DockerExecutors creates the executors on which {@link SeleniumGridUtil} runs Docker operations
+ * off the calling thread (warm pool refills, bulk provisioning and the asynchronous lifecycle API).
+ *
+ * <p>Two execution modes are supported:
+ * <ul>
+ *   <li>Platform threads: daemon threads, so an executor that was not shut down never keeps the JVM alive</li>
+ *   <li>Virtual threads: on Java 21+ every task runs on its own virtual thread, so thousands of blocked
+ *       Docker calls do not need thousands of platform threads. On older JVMs this mode falls back to
+ *       platform threads</li>
+ * </ul>
+ *
+ * <p>Virtual threads are created through reflection, so the library still compiles and runs on Java 11.
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class DockerExecutors {
+
+    private DockerExecutors() {
+    }
+
+    /**
+     * Creates an executor with a fixed number of concurrent tasks.
+     * In virtual-thread mode the tasks run on virtual threads, still bounded by the given number.
+     *
+     * @param threadNamePrefix Prefix of the thread names
+     * @param threads Maximum number of concurrent tasks, at least one
+     * @param virtualThreads true to run the tasks on virtual threads when the JVM supports them
+     * @return The executor
+     */
+    static ExecutorService newFixedExecutor(String threadNamePrefix, int threads, boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads ? newVirtualThreadFactory(threadNamePrefix) : null;
+        return Executors.newFixedThreadPool(Math.max(1, threads),
+                threadFactory != null ? threadFactory : newDaemonThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * Creates an unbounded executor. In virtual-thread mode every task gets its own virtual thread,
+     * otherwise a cached pool of daemon platform threads is used.
+     *
+     * @param threadNamePrefix Prefix of the thread names
+     * @param virtualThreads true to run the tasks on virtual threads when the JVM supports them
+     * @return The executor
+     */
+    static ExecutorService newCachedExecutor(String threadNamePrefix, boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads ? newVirtualThreadFactory(threadNamePrefix) : null;
+        if (threadFactory != null) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, threadFactory);
+            } catch (ReflectiveOperationException ex) {
+                log.warn("Unable to create virtual thread executor. Falling back to platform threads", ex);
+            }
+        }
+        return Executors.newCachedThreadPool(newDaemonThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * Checks whether the running JVM supports virtual threads (Java 21+).
+     *
+     * @return true if virtual threads can be created
+     */
+    static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a thread factory producing numbered daemon threads.
+     *
+     * @param threadNamePrefix Prefix of the thread names
+     * @return The thread factory
+     */
+    static ThreadFactory newDaemonThreadFactory(String threadNamePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a thread factory producing numbered virtual threads.
+     *
+     * @param threadNamePrefix Prefix of the thread names
+     * @return The thread factory, or null if the JVM does not support virtual threads
+     */
+    static ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        if (!isVirtualThreadSupported()) {
+            log.warn("Virtual threads require Java 21+. Running Docker operations on platform threads");
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            log.warn("Unable to create virtual thread factory. Running Docker operations on platform threads", ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.aarahman;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.net.URI;
+
+import static com.aarahman.CommonUtil.nvl;
+import static com.aarahman.CommonUtil.safeEval;
+
+/**
+ * DockerHost describes a Docker daemon that node containers can be placed on, so one suite can spread its
+ * nodes over several machines. The hub always runs on the primary host, the daemon the library connects to
+ * by default.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * DockerHost runner = DockerHost.builder()
+ *         .endpoint("tcp://runner-2.ci.local:2375")
+ *         .capacity(12)
+ *         .build();
+ * }</pre>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Getter
+@Setter
+@Builder
+public class DockerHost {
+
+    /** Docker endpoint, for example "tcp://runner-2:2375". Null means the primary host */
+    @Builder.Default
+    private String endpoint = null;
+
+    /** Maximum number of node containers placed on this host */
+    @Builder.Default
+    private int capacity = 4;
+
+    /**
+     * Address at which the other hosts and the test JVM reach the ports published on this host.
+     * Defaults to the host of the endpoint, or localhost for the primary host
+     */
+    @Builder.Default
+    private String address = null;
+
+    /**
+     * Checks whether this entry describes the primary host.
+     *
+     * @return true if no endpoint is configured
+     */
+    public boolean isPrimary() {
+        return endpoint == null;
+    }
+
+    /**
+     * Returns the address at which ports published on this host are reachable.
+     *
+     * @return The configured address, the host of the endpoint, or localhost
+     */
+    public String getReachableAddress() {
+        if (address != null) {
+            return address;
+        }
+        if (isPrimary()) {
+            return "localhost";
+        }
+        return nvl(safeEval(() -> URI.create(endpoint).getHost()), "localhost");
+    }
+
+    @Override
+    public String toString() {
+        return nvl(endpoint, "primary") + " (capacity " + capacity + ")";
+    }
+}
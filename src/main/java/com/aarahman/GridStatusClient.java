@@ -0,0 +1,259 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static com.aarahman.CommonUtil.safeEval;
+
+/**
+ * GridStatusClient reads the Selenium Grid hub's {@code /status} endpoint.
+ * It is used to find out whether the hub accepts requests and whether a node container has registered itself with the hub.
+ *
+ * <p>Nodes launched by {@link SeleniumGridUtil} advertise their container name as host
+ * ({@code SE_NODE_HOST}), so a registered node is recognised by its URI in the status payload.
+ * Nodes on another Docker host advertise that host's address and their own port, so they are recognised
+ * by "host:port" instead.
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class GridStatusClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private final Json json = new Json();
+
+    /**
+     * Reads the {@code value} object of the hub status.
+     *
+     * @param gridUrl Base URL of the hub
+     * @return The status value, or null if the hub could not be reached or answered with an error
+     */
+    Map<String, Object> fetchStatus(URL gridUrl) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(gridUrl + "/status"))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            Map<String, Object> status = json.toType(response.body(), Json.MAP_TYPE);
+            return castToMap(status.get("value"));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception ex) {
+            log.debug("Unable to read grid status from {}", gridUrl, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Blocks until the hub answers its status endpoint, polling with exponential backoff.
+     * The hub only reports {@code ready: true} once a node has registered, so a valid status answer
+     * (HTTP 200 with a status payload) is what makes a freshly started hub usable.
+     *
+     * @param gridUrl Base URL of the hub
+     * @param initialBackoff Wait after the first unsuccessful poll
+     * @param maxBackoff Upper bound of the wait between two polls
+     * @param timeout Maximum time to wait
+     * @return Time it took the hub to become ready, or null if it did not become ready within the timeout
+     */
+    Duration awaitHubReady(URL gridUrl, Duration initialBackoff, Duration maxBackoff, Duration timeout) {
+        return poll(() -> fetchStatus(gridUrl) != null, initialBackoff, maxBackoff, timeout);
+    }
+
+    /**
+     * Evaluates a condition until it holds or the timeout elapses. The wait between two evaluations
+     * starts at the initial backoff and doubles up to the maximum backoff, so a condition that holds
+     * quickly is noticed quickly without hammering the hub when it takes longer.
+     *
+     * @param condition Condition to evaluate
+     * @param initialBackoff Wait after the first unsuccessful evaluation
+     * @param maxBackoff Upper bound of the wait between two evaluations
+     * @param timeout Maximum time to wait
+     * @return Time until the condition held, or null on timeout or interruption
+     */
+    static Duration poll(BooleanSupplier condition, Duration initialBackoff, Duration maxBackoff, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long backoffNanos = Math.max(1, initialBackoff.toNanos());
+        while (true) {
+            if (condition.getAsBoolean()) {
+                return Duration.ofNanos(System.nanoTime() - start);
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return null;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(backoffNanos, remainingNanos));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            backoffNanos = Math.min(backoffNanos * 2, Math.max(backoffNanos, maxBackoff.toNanos()));
+        }
+    }
+
+    /**
+     * Checks whether a node advertising the given host is registered with the hub and is up.
+     *
+     * @param gridUrl Base URL of the hub
+     * @param nodeHost Host advertised by the node (the node container name)
+     * @return true if the node is registered and available
+     */
+    boolean isNodeRegistered(URL gridUrl, String nodeHost) {
+        return findNode(fetchStatus(gridUrl), nodeHost) != null;
+    }
+
+    /**
+     * Blocks until a node advertising the given host is registered with the hub and has a free slot,
+     * polling the hub's node list with exponential backoff. A new session sent to the hub after this
+     * returns is matched to the node right away instead of waiting in the new-session queue.
+     *
+     * @param gridUrl Base URL of the hub
+     * @param nodeHost Host advertised by the node (the node container name)
+     * @param giveUp Condition under which the wait ends early, for example because the node container died
+     * @param initialBackoff Wait after the first unsuccessful poll
+     * @param maxBackoff Upper bound of the wait between two polls
+     * @param timeout Maximum time to wait
+     * @return The grid node ID, or null if the node did not become ready within the timeout or the wait was given up
+     */
+    String awaitNodeReady(URL gridUrl, String nodeHost, BooleanSupplier giveUp, Duration initialBackoff, Duration maxBackoff, Duration timeout) {
+        AtomicReference<String> nodeId = new AtomicReference<>();
+        Duration waited = poll(() -> {
+            if (giveUp.getAsBoolean()) {
+                return true;
+            }
+            Map<String, Object> node = findNode(fetchStatus(gridUrl), nodeHost);
+            if (node == null || !hasFreeSlot(node)) {
+                return false;
+            }
+            nodeId.set(String.valueOf(node.get("id")));
+            return true;
+        }, initialBackoff, maxBackoff, timeout);
+        if (waited != null && nodeId.get() != null) {
+            log.info("Node {} ({}) ready in {} ms", nodeHost, nodeId.get(), waited.toMillis());
+        }
+        return nodeId.get();
+    }
+
+    /**
+     * Checks whether a node entry of the hub status has at least one slot without a session.
+     *
+     * @param node A node entry of the hub status
+     * @return true if a slot is free
+     */
+    @SuppressWarnings("unchecked")
+    boolean hasFreeSlot(Map<String, Object> node) {
+        if (!(node.get("slots") instanceof List)) {
+            return false;
+        }
+        for (Map<String, Object> slot : (List<Map<String, Object>>) node.get("slots")) {
+            if (slot.get("session") == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the node entry whose URI host (or "host:port", if the given host has a port) matches the given host
+     * and whose availability is UP.
+     *
+     * @param status The status value returned by {@link #fetchStatus(URL)}
+     * @param nodeHost Host advertised by the node, with the node port if several nodes share the host
+     * @return The node entry, or null if no such node is registered
+     */
+    Map<String, Object> findNode(Map<String, Object> status, String nodeHost) {
+        boolean withPort = nodeHost.contains(":");
+        for (Map<String, Object> node : getNodes(status)) {
+            String uri = String.valueOf(node.get("uri"));
+            if (nodeHost.equalsIgnoreCase(safeEval(() -> withPort ? URI.create(uri).getAuthority() : URI.create(uri).getHost()))
+                    && "UP".equals(node.get("availability"))) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the IDs of the sessions currently running on the node advertising the given host.
+     *
+     * @param status The status value returned by {@link #fetchStatus(URL)}
+     * @param nodeHost Host advertised by the node
+     * @return Session IDs, empty if the node is not registered or idle
+     */
+    @SuppressWarnings("unchecked")
+    List<String> getSessionIds(Map<String, Object> status, String nodeHost) {
+        Map<String, Object> node = findNode(status, nodeHost);
+        List<String> sessionIds = new ArrayList<>();
+        if (node == null || !(node.get("slots") instanceof List)) {
+            return sessionIds;
+        }
+        for (Map<String, Object> slot : (List<Map<String, Object>>) node.get("slots")) {
+            Map<String, Object> session = castToMap(slot.get("session"));
+            if (session != null && session.get("sessionId") != null) {
+                sessionIds.add(String.valueOf(session.get("sessionId")));
+            }
+        }
+        return sessionIds;
+    }
+
+    /**
+     * Quits a session through the hub.
+     *
+     * @param gridUrl Base URL of the hub
+     * @param sessionId ID of the session to quit
+     * @return true if the hub accepted the request
+     */
+    boolean deleteSession(URL gridUrl, String sessionId) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(gridUrl + "/session/" + sessionId))
+                    .timeout(Duration.ofSeconds(30))
+                    .DELETE()
+                    .build();
+            int statusCode = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return statusCode >= 200 && statusCode < 300;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception ex) {
+            log.warn("Unable to quit session {}: {}", sessionId, ex.getMessage());
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> getNodes(Map<String, Object> status) {
+        if (status == null || !(status.get("nodes") instanceof List)) {
+            return Collections.emptyList();
+        }
+        return (List<Map<String, Object>>) status.get("nodes");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castToMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+}
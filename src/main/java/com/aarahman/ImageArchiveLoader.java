@@ -0,0 +1,256 @@
+package com.aarahman;
+
+import com.github.dockerjava.api.DockerClient;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ImageArchiveLoader loads Docker images from local {@code docker save} archives instead of pulling them
+ * from a registry, for hosts without registry access.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>The archive folder is indexed once: only the tar headers of each archive are read until
+ *       {@code manifest.json} is found, and the image layers are skipped without being read into memory</li>
+ *   <li>The tags read from an archive are cached by file, size and modification time, so the loaders of
+ *       several Docker hosts do not decompress the same {@code .tar.gz} archive again</li>
+ *   <li>Archives are found by the RepoTags in their manifest, not by file name.
+ *       Plain ({@code .tar}) and gzip compressed ({@code .tar.gz}, {@code .tgz}) archives are supported</li>
+ *   <li>Digest-pinned images cannot be loaded: an archive records tags, and a loaded image is not known to
+ *       the daemon by its registry digest. Such images are rejected with an error instead of being pulled</li>
+ *   <li>An archive is streamed from disk straight into the daemon's image load API,
+ *       so multi-GB images never pass through the JVM heap</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class ImageArchiveLoader {
+
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    /** Tags read from each archive, shared by the loaders of all Docker hosts */
+    private static final Map<File, ArchiveTags> ARCHIVE_TAGS = new ConcurrentHashMap<>();
+
+    /**
+     * Tags of an archive, valid as long as the file keeps its size and modification time.
+     */
+    private static final class ArchiveTags {
+
+        final long length;
+
+        final long lastModified;
+
+        final List<String> repoTags;
+
+        ArchiveTags(File archive, List<String> repoTags) {
+            this.length = archive.length();
+            this.lastModified = archive.lastModified();
+            this.repoTags = repoTags;
+        }
+
+        boolean isCurrent(File archive) {
+            return length == archive.length() && lastModified == archive.lastModified();
+        }
+    }
+
+    private final DockerClient dockerClient;
+
+    private final File archiveFolder;
+
+    private volatile Map<String, File> archivesByImage;
+
+    ImageArchiveLoader(DockerClient dockerClient, File archiveFolder) {
+        this.dockerClient = dockerClient;
+        this.archiveFolder = archiveFolder;
+    }
+
+    /**
+     * Loads the archive containing the given image into the daemon.
+     *
+     * @param imageName Image name including tag
+     * @throws IllegalArgumentException if the image is pinned by digest
+     * @throws RuntimeException if no archive contains the image or the archive could not be loaded
+     */
+    void load(String imageName) {
+        if (imageName.contains("@")) {
+            throw new IllegalArgumentException("Image " + imageName + " is pinned by digest and cannot be loaded in offline mode: "
+                    + "docker save archives only record tags. Pin a tag, or load the image into the daemon before the run");
+        }
+        File archive = getArchivesByImage().get(normalizeImageName(imageName));
+        if (archive == null) {
+            throw new RuntimeException("No image archive found for " + imageName + " in " + archiveFolder.getAbsolutePath());
+        }
+        log.info("Loading image {} from archive {}", imageName, archive.getAbsolutePath());
+        long start = System.nanoTime();
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(archive))) {
+            dockerClient.loadImageCmd(inputStream).exec();
+        } catch (IOException ex) {
+            throw new RuntimeException("Unable to load image archive: " + archive.getAbsolutePath(), ex);
+        }
+        log.info("Loaded image archive {} in {} ms", archive.getName(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Map<String, File> getArchivesByImage() {
+        if (archivesByImage == null) {
+            synchronized (this) {
+                if (archivesByImage == null) {
+                    archivesByImage = indexArchives();
+                }
+            }
+        }
+        return archivesByImage;
+    }
+
+    private Map<String, File> indexArchives() {
+        Map<String, File> index = new ConcurrentHashMap<>();
+        File[] archives = archiveFolder.listFiles((dir, name) -> isArchive(name));
+        if (archives == null) {
+            log.warn("Image archive folder {} does not exist", archiveFolder.getAbsolutePath());
+            return index;
+        }
+        for (File archive : archives) {
+            try {
+                getRepoTags(archive).forEach(repoTag -> index.putIfAbsent(normalizeImageName(repoTag), archive));
+            } catch (Exception ex) {
+                log.warn("Unable to read image archive {}: {}", archive.getAbsolutePath(), ex.getMessage());
+            }
+        }
+        log.info("Found {} images in archive folder {}", index.size(), archiveFolder.getAbsolutePath());
+        return index;
+    }
+
+    /**
+     * Returns the RepoTags of an archive, reading its manifest only if the archive changed since the last read.
+     */
+    static List<String> getRepoTags(File archive) throws IOException {
+        File key = archive.getAbsoluteFile();
+        ArchiveTags cached = ARCHIVE_TAGS.get(key);
+        if (cached != null && cached.isCurrent(key)) {
+            return cached.repoTags;
+        }
+        List<String> repoTags = Collections.unmodifiableList(readRepoTags(key));
+        ARCHIVE_TAGS.put(key, new ArchiveTags(key, repoTags));
+        return repoTags;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> readRepoTags(File archive) throws IOException {
+        String manifest = readManifest(archive);
+        if (manifest == null) {
+            log.warn("No {} found in image archive {}", MANIFEST_FILE_NAME, archive.getAbsolutePath());
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> entries = new Json().toType(manifest, Json.LIST_OF_MAPS_TYPE);
+        List<String> repoTags = new ArrayList<>();
+        entries.forEach(entry -> {
+            Object tags = entry.get("RepoTags");
+            if (tags instanceof List) {
+                repoTags.addAll((List<String>) tags);
+            }
+        });
+        return repoTags;
+    }
+
+    /**
+     * Walks the tar headers of an archive and returns the content of its manifest.json.
+     * Entry contents other than the manifest are skipped, not read.
+     */
+    static String readManifest(File archive) throws IOException {
+        try (InputStream inputStream = openArchive(archive)) {
+            byte[] header = new byte[TAR_BLOCK_SIZE];
+            while (readBlock(inputStream, header)) {
+                String entryName = readString(header, 0, 100);
+                if (entryName.isEmpty()) {
+                    // Two zero blocks mark the end of the archive
+                    return null;
+                }
+                long entrySize = Long.parseLong(readString(header, 124, 12).trim(), 8);
+                long paddedSize = (entrySize + TAR_BLOCK_SIZE - 1) / TAR_BLOCK_SIZE * TAR_BLOCK_SIZE;
+                if (MANIFEST_FILE_NAME.equals(entryName) || ("./" + MANIFEST_FILE_NAME).equals(entryName)) {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream((int) entrySize);
+                    byte[] block = new byte[TAR_BLOCK_SIZE];
+                    for (long read = 0; read < paddedSize; read += TAR_BLOCK_SIZE) {
+                        if (!readBlock(inputStream, block)) {
+                            throw new EOFException("Truncated image archive: " + archive.getAbsolutePath());
+                        }
+                        content.write(block, 0, (int) Math.min(TAR_BLOCK_SIZE, entrySize - read));
+                    }
+                    return new String(content.toByteArray(), StandardCharsets.UTF_8);
+                }
+                skipFully(inputStream, paddedSize);
+            }
+            return null;
+        }
+    }
+
+    private static InputStream openArchive(File archive) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(archive));
+        String name = archive.getName().toLowerCase();
+        return name.endsWith(".gz") || name.endsWith(".tgz") ? new GZIPInputStream(inputStream) : inputStream;
+    }
+
+    private static boolean readBlock(InputStream inputStream, byte[] block) throws IOException {
+        int offset = 0;
+        while (offset < block.length) {
+            int read = inputStream.read(block, offset, block.length - offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static void skipFully(InputStream inputStream, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = inputStream.skip(bytes);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new EOFException("Unexpected end of image archive");
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static String readString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isArchive(String fileName) {
+        String name = fileName.toLowerCase();
+        return name.endsWith(".tar") || name.endsWith(".tar.gz") || name.endsWith(".tgz");
+    }
+
+    /**
+     * Adds the implicit latest tag, so "selenium/hub" and "selenium/hub:latest" find the same archive.
+     */
+    private static String normalizeImageName(String imageName) {
+        int lastSlash = imageName.lastIndexOf('/');
+        return imageName.indexOf(':', lastSlash + 1) < 0 && !imageName.contains("@") ? imageName + ":latest" : imageName;
+    }
+}
@@ -0,0 +1,148 @@
+package com.aarahman;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.aarahman.CommonUtil.isArmProcessor;
+import static com.aarahman.CommonUtil.nvl;
+
+/**
+ * ImageCatalog decides which Docker image is used for the hub, the video recorder and the node of each
+ * {@link Browser} and version.
+ *
+ * <p>Images that are not configured explicitly float on {@code defaultTag} (for example
+ * {@code selenium/node-chrome:latest}). Any image can be pinned to an exact reference, typically by digest
+ * ({@code selenium/node-chrome@sha256:...}). Pinned images are never re-resolved against the registry once
+ * they are present locally, which makes skipping pulls safe.
+ *
+ * <p>Node images are keyed by browser and version, so several versions of one browser can run side by side
+ * in the same grid:
+ * <pre>
+ * ImageCatalog catalog = ImageCatalog.builder()
+ *         .defaultTag("4.31.0")
+ *         .build()
+ *         .pinNodeImage(Browser.CHROME, "134.0", "selenium/node-chrome@sha256:...")
+ *         .pinNodeImage(Browser.CHROME, "133.0", "selenium/node-chrome:133.0");
+ * </pre>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Getter
+@Setter
+@Builder
+public class ImageCatalog {
+
+    @Builder.Default
+    private String defaultTag = "latest";
+
+    @Builder.Default
+    private String hubImage = null;
+
+    @Builder.Default
+    private String videoImage = "selenium/video:latest";
+
+    @Builder.Default
+    private String nodeDockerImage = null;
+
+    @Builder.Default
+    private Map<Browser, Map<String, String>> nodeImages = new EnumMap<>(Browser.class);
+
+    /**
+     * Pins the node image of a browser version to an exact image reference.
+     *
+     * @param browser The browser of the node
+     * @param version The version key used in launchNode(Browser, String), or null for the default version
+     * @param imageReference Image reference, for example "selenium/node-chrome@sha256:..."
+     * @return This catalog, for chaining
+     */
+    public ImageCatalog pinNodeImage(Browser browser, String version, String imageReference) {
+        nodeImages.computeIfAbsent(browser, b -> new HashMap<>()).put(nvl(version, defaultTag), imageReference);
+        return this;
+    }
+
+    /**
+     * Returns the hub image, which floats on the default tag unless a hub image is configured.
+     *
+     * @return Hub image reference
+     */
+    public String getHubImageName() {
+        return nvl(hubImage, "selenium/hub:" + defaultTag);
+    }
+
+    /**
+     * Returns the node-docker image of the dynamic grid, which floats on the default tag unless a
+     * node-docker image is configured.
+     *
+     * @return Node-docker image reference
+     */
+    public String getNodeDockerImageName() {
+        return nvl(nodeDockerImage, "selenium/node-docker:" + defaultTag);
+    }
+
+    /**
+     * Returns the node image of a browser version. Versions without a pinned image use the
+     * version as tag of the browser's node image.
+     *
+     * @param browser The browser of the node
+     * @param version The version, or null for the default version
+     * @return Node image reference
+     */
+    public String getNodeImageName(Browser browser, String version) {
+        String tag = nvl(version, defaultTag);
+        String pinnedImage = nodeImages.getOrDefault(browser, new HashMap<>()).get(tag);
+        return nvl(pinnedImage, "selenium/node-" + getImageBrowserName(browser) + ":" + tag);
+    }
+
+    /**
+     * Returns the standalone image of a browser version, which runs a complete grid (router, distributor and
+     * one node) in a single container. Pinned node images do not apply to standalone images.
+     *
+     * @param browser The browser of the standalone container
+     * @param version The version, or null for the default version
+     * @return Standalone image reference
+     */
+    public String getStandaloneImageName(Browser browser, String version) {
+        return "selenium/standalone-" + getImageBrowserName(browser) + ":" + nvl(version, defaultTag);
+    }
+
+    /**
+     * Checks whether an image reference is pinned by digest.
+     *
+     * @param imageReference Image reference
+     * @return true if the reference contains a digest
+     */
+    public static boolean isPinned(String imageReference) {
+        return imageReference != null && imageReference.contains("@sha256:");
+    }
+
+    /**
+     * Returns the browser name used in Selenium image names.
+     * Chrome images are not published for ARM, so Chromium is used on ARM processors.
+     *
+     * @param browser The browser
+     * @return Browser name as used in image names
+     * @throws IllegalArgumentException if browser type is not supported
+     */
+    static String getImageBrowserName(Browser browser) {
+        switch (browser) {
+            case CHROME:
+                return isArmProcessor() ? "chromium" : "chrome";
+            case FIREFOX:
+                return "firefox";
+            case SAFARI:
+                return "safari";
+            case EDGE:
+                return "edge";
+            case CHROMIUM:
+                return "chromium";
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
+        }
+    }
+}
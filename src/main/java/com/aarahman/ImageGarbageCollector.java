@@ -0,0 +1,184 @@
+package com.aarahman;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Image;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.aarahman.CommonUtil.nvl;
+import static com.aarahman.CommonUtil.safeEval;
+
+/**
+ * ImageGarbageCollector keeps the disk space used by Selenium images within a budget by removing the
+ * least recently used ones.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Selenium images are the images with a {@code selenium/} repository tag. Their sizes come from the
+ *       daemon's image list</li>
+ *   <li>Every image resolution records a last-use time. Last-use times are persisted in a small properties file
+ *       in the temp directory, so the order spans JVMs. Images never used through this library count as used
+ *       when they were created</li>
+ *   <li>Images used by a container (running or stopped) and images used in this JVM are never removed</li>
+ *   <li>Images are removed oldest use first, only as many as needed to get back within the budget,
+ *       so recently used images stay cached</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class ImageGarbageCollector {
+
+    /** File in which image last-use times are persisted */
+    private static final File LAST_USE_FILE = new File(System.getProperty("java.io.tmpdir"), "docknium-image-usage.properties");
+
+    private static final String SELENIUM_REPOSITORY_PREFIX = "selenium/";
+
+    private final DockerClient dockerClient;
+
+    private final CleanupEngine cleanupEngine;
+
+    private final Map<String, Long> lastUseByImageId = new ConcurrentHashMap<>();
+
+    private final Set<String> usedInThisRun = ConcurrentHashMap.newKeySet();
+
+    ImageGarbageCollector(DockerClient dockerClient, CleanupEngine cleanupEngine) {
+        this.dockerClient = dockerClient;
+        this.cleanupEngine = cleanupEngine;
+        loadLastUseTimes();
+    }
+
+    /**
+     * Records that an image has just been used.
+     *
+     * @param imageId ID of the image
+     */
+    void recordUse(String imageId) {
+        if (imageId != null) {
+            lastUseByImageId.put(imageId, System.currentTimeMillis());
+            usedInThisRun.add(imageId);
+        }
+    }
+
+    /**
+     * Removes least recently used Selenium images until the Selenium images fit into the budget.
+     *
+     * @param diskBudgetBytes Disk space the Selenium images may use, in bytes
+     * @return Aggregated result of the removals
+     */
+    CleanupResult collect(long diskBudgetBytes) {
+        CleanupResult result = new CleanupResult("least recently used Selenium images");
+        Set<String> evictedImageIds = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+        try {
+            List<Image> seleniumImages = dockerClient.listImagesCmd().exec().stream()
+                    .filter(ImageGarbageCollector::isSeleniumImage)
+                    .collect(Collectors.toList());
+            long usedBytes = seleniumImages.stream().mapToLong(ImageGarbageCollector::getSize).sum();
+            log.info("Selenium images use {} MB of a {} MB budget", usedBytes / (1024 * 1024), diskBudgetBytes / (1024 * 1024));
+            if (usedBytes <= diskBudgetBytes) {
+                return result;
+            }
+            Set<String> protectedImageIds = getImagesInUse();
+            List<Image> evictable = seleniumImages.stream()
+                    .filter(image -> !protectedImageIds.contains(image.getId()))
+                    .sorted(Comparator.comparingLong(this::getLastUse))
+                    .collect(Collectors.toList());
+            List<Image> evictions = new ArrayList<>();
+            for (Image image : evictable) {
+                if (usedBytes <= diskBudgetBytes) {
+                    break;
+                }
+                evictions.add(image);
+                usedBytes -= getSize(image);
+            }
+            if (usedBytes > diskBudgetBytes) {
+                log.warn("Selenium images in use exceed the disk budget of {} MB", diskBudgetBytes / (1024 * 1024));
+            }
+            result = cleanupEngine.removeAll("least recently used Selenium images", evictions, Image::getId, image -> {
+                log.info("Evicting image {} ({} MB)", Arrays.toString(image.getRepoTags()), getSize(image) / (1024 * 1024));
+                dockerClient.removeImageCmd(image.getId()).withForce(true).exec();
+                evictedImageIds.add(image.getId());
+            });
+            return result;
+        } catch (Exception ex) {
+            log.error("Error during image garbage collection: {}", ex.getMessage(), ex);
+            return result;
+        } finally {
+            result.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+            storeLastUseTimes(evictedImageIds);
+        }
+    }
+
+    private Set<String> getImagesInUse() {
+        Set<String> imageIds = new HashSet<>(usedInThisRun);
+        for (Container container : dockerClient.listContainersCmd().withShowAll(true).exec()) {
+            imageIds.add(container.getImageId());
+        }
+        return imageIds;
+    }
+
+    private long getLastUse(Image image) {
+        Long lastUse = lastUseByImageId.get(image.getId());
+        return lastUse != null ? lastUse : nvl(image.getCreated(), 0L) * 1000;
+    }
+
+    private static long getSize(Image image) {
+        return nvl(image.getSize(), 0L);
+    }
+
+    private static boolean isSeleniumImage(Image image) {
+        return image.getRepoTags() != null
+                && Arrays.stream(image.getRepoTags()).anyMatch(tag -> tag.startsWith(SELENIUM_REPOSITORY_PREFIX));
+    }
+
+    private synchronized void loadLastUseTimes() {
+        if (!LAST_USE_FILE.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(LAST_USE_FILE)) {
+            properties.load(inputStream);
+        } catch (Exception ex) {
+            log.debug("Unable to read image last-use times from {}", LAST_USE_FILE, ex);
+            return;
+        }
+        properties.stringPropertyNames().forEach(imageId -> {
+            Long lastUse = safeEval(() -> Long.parseLong(properties.getProperty(imageId)));
+            if (lastUse != null) {
+                lastUseByImageId.merge(imageId, lastUse, Math::max);
+            }
+        });
+    }
+
+    private synchronized void storeLastUseTimes(Set<String> evictedImageIds) {
+        // Merges with the times written by other JVMs since this one started
+        loadLastUseTimes();
+        lastUseByImageId.keySet().removeAll(evictedImageIds);
+        Properties properties = new Properties();
+        lastUseByImageId.forEach((imageId, lastUse) -> properties.setProperty(imageId, String.valueOf(lastUse)));
+        try (OutputStream outputStream = new FileOutputStream(LAST_USE_FILE)) {
+            properties.store(outputStream, "Docknium image last-use times");
+        } catch (Exception ex) {
+            log.debug("Unable to write image last-use times to {}", LAST_USE_FILE, ex);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.aarahman;
+
+public enum ImagePullPolicy {
+    /** Pull the image from the registry on every launch */
+    ALWAYS,
+    /** Pull the image once per JVM, later launches use the local image */
+    ONCE_PER_JVM,
+    /** Pull the image again only when the last pull is older than the configured TTL */
+    TTL
+}
@@ -0,0 +1,258 @@
+package com.aarahman;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.aarahman.CommonUtil.safeEval;
+
+/**
+ * ImageResolver makes sure a Docker image is available locally before a container is created from it.
+ * It remembers which images it has already resolved, so repeated launches do not go back to the registry.
+ *
+ * <p>Freshness is controlled by {@link ImagePullPolicy}:
+ * <ul>
+ *   <li>ALWAYS: every resolution pulls the image (the behaviour before the cache existed)</li>
+ *   <li>ONCE_PER_JVM: the first resolution in this JVM pulls the image, later ones use the local image</li>
+ *   <li>TTL: the image is pulled again only when the last pull is older than the TTL. Pull times are
+ *       persisted in a small properties file in the temp directory, so the TTL spans JVMs</li>
+ * </ul>
+ *
+ * <p>A cached resolution is only trusted while image inspect still finds the same image ID locally,
+ * so an image removed or retagged outside this library is pulled again. If a pull fails but the image
+ * is present locally, the local image is used.
+ *
+ * <p>Images pinned by digest are never re-resolved against the registry once they are present locally,
+ * whatever the pull policy.
+ *
+ * <p>In offline mode images are never pulled. An image missing locally is loaded from a local
+ * {@code docker save} archive through {@link ImageArchiveLoader}, and archives of images that are
+ * already present are skipped.
+ *
+ * <p>Resolutions are single-flight per image: threads asking for an image that is already being
+ * resolved wait for the in-flight result instead of issuing their own pull.
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class ImageResolver {
+
+    /** File in which pull times are persisted for the TTL policy */
+    private static final File PULL_TIMES_FILE = new File(System.getProperty("java.io.tmpdir"), "docknium-image-pulls.properties");
+
+    private final DockerClient dockerClient;
+
+    private final ImagePullPolicy pullPolicy;
+
+    private final Duration pullTtl;
+
+    private final ImageArchiveLoader archiveLoader;
+
+    private final Map<String, ResolvedImage> resolvedImages = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<String>> inFlightResolutions = new ConcurrentHashMap<>();
+
+    /** Notified with the image ID of every successful resolution, null if nobody listens */
+    @Setter
+    private volatile Consumer<String> resolutionListener;
+
+    ImageResolver(DockerClient dockerClient, ImagePullPolicy pullPolicy, Duration pullTtl) {
+        this(dockerClient, pullPolicy, pullTtl, null);
+    }
+
+    /**
+     * Creates a resolver. With an archive loader the resolver works offline: missing images are loaded
+     * from the archives and the registry is never contacted.
+     *
+     * @param dockerClient Docker client
+     * @param pullPolicy Pull policy, ALWAYS if null
+     * @param pullTtl Time after which the TTL policy pulls again
+     * @param archiveLoader Loader of local image archives, or null to pull from the registry
+     */
+    ImageResolver(DockerClient dockerClient, ImagePullPolicy pullPolicy, Duration pullTtl, ImageArchiveLoader archiveLoader) {
+        this.dockerClient = dockerClient;
+        this.pullPolicy = CommonUtil.nvl(pullPolicy, ImagePullPolicy.ALWAYS);
+        this.pullTtl = CommonUtil.nvl(pullTtl, Duration.ZERO);
+        this.archiveLoader = archiveLoader;
+        if (archiveLoader == null && this.pullPolicy == ImagePullPolicy.TTL) {
+            loadPullTimes();
+        }
+    }
+
+    /**
+     * Makes sure the given image is available locally, pulling it only when the pull policy requires it.
+     * Concurrent calls for the same image share one resolution: the first caller pulls, the others wait
+     * for its result, so the daemon and registry see one pull per image instead of one per thread.
+     *
+     * @param imageName Image name including tag or digest
+     * @return The local image ID
+     * @throws RuntimeException if the image can neither be pulled nor found locally
+     */
+    String resolve(String imageName) {
+        CompletableFuture<String> resolution = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = inFlightResolutions.putIfAbsent(imageName, resolution);
+        if (inFlight != null) {
+            log.debug("Waiting for in-flight resolution of image {}", imageName);
+            return awaitResolution(inFlight);
+        }
+        try {
+            String imageId = resolveNow(imageName);
+            if (resolutionListener != null) {
+                resolutionListener.accept(imageId);
+            }
+            resolution.complete(imageId);
+            return imageId;
+        } catch (RuntimeException ex) {
+            resolution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightResolutions.remove(imageName, resolution);
+        }
+    }
+
+    private String resolveNow(String imageName) {
+        ResolvedImage cached = resolvedImages.get(imageName);
+        InspectImageResponse localImage = inspectLocalImage(imageName);
+        if (archiveLoader != null) {
+            return resolveOffline(imageName, localImage);
+        }
+        if (localImage != null && ImageCatalog.isPinned(imageName)) {
+            // A digest always refers to the same content, so a local copy never needs to be re-resolved
+            resolvedImages.put(imageName, new ResolvedImage(localImage.getId(), Instant.now()));
+            return localImage.getId();
+        }
+        if (cached != null && localImage != null && isFresh(cached)
+                && (cached.imageId == null || cached.imageId.equals(localImage.getId()))) {
+            log.debug("Using cached image {} ({})", imageName, localImage.getId());
+            return localImage.getId();
+        }
+        try {
+            pull(imageName);
+        } catch (Exception ex) {
+            if (localImage == null) {
+                throw new RuntimeException("Unable to pull image: " + imageName, ex);
+            }
+            log.warn("Unable to pull image {}. Using the local image instead: {}", imageName, ex.getMessage());
+        }
+        localImage = inspectLocalImage(imageName);
+        if (localImage == null) {
+            throw new RuntimeException("Image not found after pull: " + imageName);
+        }
+        ResolvedImage resolved = new ResolvedImage(localImage.getId(), Instant.now());
+        resolvedImages.put(imageName, resolved);
+        log.info("Resolved image {} to {} {}", imageName, localImage.getId(), CommonUtil.nvl(localImage.getRepoDigests(), Collections.emptyList()));
+        if (pullPolicy == ImagePullPolicy.TTL) {
+            storePullTimes();
+        }
+        return localImage.getId();
+    }
+
+    private String resolveOffline(String imageName, InspectImageResponse localImage) {
+        if (localImage == null) {
+            archiveLoader.load(imageName);
+            localImage = inspectLocalImage(imageName);
+            if (localImage == null) {
+                throw new RuntimeException("Image not found after loading its archive: " + imageName);
+            }
+        } else {
+            log.debug("Image {} already present. Skipping its archive", imageName);
+        }
+        resolvedImages.put(imageName, new ResolvedImage(localImage.getId(), Instant.now()));
+        return localImage.getId();
+    }
+
+    private static String awaitResolution(CompletableFuture<String> resolution) {
+        try {
+            return resolution.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    @SneakyThrows
+    private void pull(String imageName) {
+        log.info("Pulling image: {}", imageName);
+        dockerClient.pullImageCmd(imageName)
+                .exec(new PullImageResultCallback())
+                .awaitCompletion();
+    }
+
+    private InspectImageResponse inspectLocalImage(String imageName) {
+        return safeEval(() -> dockerClient.inspectImageCmd(imageName).exec());
+    }
+
+    private boolean isFresh(ResolvedImage resolved) {
+        switch (pullPolicy) {
+            case ONCE_PER_JVM:
+                return true;
+            case TTL:
+                return resolved.resolvedAt.plus(pullTtl).isAfter(Instant.now());
+            case ALWAYS:
+            default:
+                return false;
+        }
+    }
+
+    private synchronized void loadPullTimes() {
+        if (!PULL_TIMES_FILE.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(PULL_TIMES_FILE)) {
+            properties.load(inputStream);
+        } catch (Exception ex) {
+            log.debug("Unable to read image pull times from {}", PULL_TIMES_FILE, ex);
+            return;
+        }
+        properties.stringPropertyNames().forEach(imageName -> {
+            String[] value = properties.getProperty(imageName).split("\\|", 2);
+            Long pulledAt = safeEval(() -> Long.parseLong(value[0]));
+            if (pulledAt != null) {
+                resolvedImages.put(imageName, new ResolvedImage(value.length > 1 && !value[1].isEmpty() ? value[1] : null, Instant.ofEpochMilli(pulledAt)));
+            }
+        });
+    }
+
+    private synchronized void storePullTimes() {
+        Properties properties = new Properties();
+        resolvedImages.forEach((imageName, resolved) ->
+                properties.setProperty(imageName, resolved.resolvedAt.toEpochMilli() + "|" + CommonUtil.nvl(resolved.imageId, "")));
+        try (OutputStream outputStream = new FileOutputStream(PULL_TIMES_FILE)) {
+            properties.store(outputStream, "Docknium image pull times");
+        } catch (Exception ex) {
+            log.debug("Unable to write image pull times to {}", PULL_TIMES_FILE, ex);
+        }
+    }
+
+    private static class ResolvedImage {
+        private final String imageId;
+        private final Instant resolvedAt;
+
+        private ResolvedImage(String imageId, Instant resolvedAt) {
+            this.imageId = imageId;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
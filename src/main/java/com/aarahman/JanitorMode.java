@@ -0,0 +1,10 @@
+package com.aarahman;
+
+public enum JanitorMode {
+    /** Clean up stale resources in launchGrid before the network and hub are created */
+    INLINE,
+    /** Clean up stale resources in the background while launchGrid pulls and starts the hub */
+    CONCURRENT,
+    /** Clean up stale resources in the background when launchGrid runs and then at a fixed interval */
+    SCHEDULED
+}
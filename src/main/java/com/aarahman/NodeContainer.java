@@ -0,0 +1,40 @@
+package com.aarahman;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * NodeContainer is a handle to a single Selenium node container launched by {@link SeleniumGridUtil}.
+ * It carries everything needed to reach, record and tear down the node, so a node can be created on
+ * one thread (for example by the warm pool) and handed over to the test thread that uses it.
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Getter
+@Setter
+@Builder
+public class NodeContainer {
+    private Browser browser;
+
+    private String browserVersion;
+
+    private String containerId;
+
+    private String containerName;
+
+    private String nodeId;
+
+    private Integer vncPort;
+
+    private Integer webDriverPort;
+
+    private DockerHost dockerHost;
+
+    private Integer nodePort;
+
+    private String videoContainerId;
+
+    private int reuseCount;
+}
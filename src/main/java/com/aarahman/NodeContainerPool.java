@@ -0,0 +1,196 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * NodeContainerPool keeps a warm pool of started, hub-registered node containers per {@link Browser}.
+ * Leasing a node from the pool takes milliseconds, while a background refiller creates replacement
+ * nodes so the pool stays at its target size.
+ *
+ * <p>The pool also holds recycled nodes released by tests, so it is used as idle store even
+ * when no target size is configured.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Idle nodes are held in one queue per browser</li>
+ *   <li>Every lease triggers a refill for the leased browser</li>
+ *   <li>Refills run on a small executor, never on the leasing thread</li>
+ *   <li>In-flight refills are counted so a burst of leases does not over-provision</li>
+ *   <li>Closing the pool disposes idle nodes and nodes that finish provisioning afterwards</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class NodeContainerPool {
+
+    private final Map<Browser, Integer> targetSizes;
+
+    private final Function<Browser, NodeContainer> nodeFactory;
+
+    private final Consumer<NodeContainer> nodeDisposer;
+
+    private final ExecutorService refiller;
+
+    private final Map<Browser, BlockingQueue<NodeContainer>> idleNodes = new ConcurrentHashMap<>();
+
+    private final Map<Browser, AtomicInteger> pendingRefills = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool. Nodes are not provisioned until {@link #fill()} is called.
+     *
+     * @param targetSizes Number of idle nodes to keep per browser
+     * @param refiller Executor used to provision replacement nodes, shut down when the pool closes
+     * @param nodeFactory Creates a started and registered node, or returns null on failure
+     * @param nodeDisposer Stops and removes a node container
+     */
+    NodeContainerPool(Map<Browser, Integer> targetSizes, ExecutorService refiller,
+                      Function<Browser, NodeContainer> nodeFactory, Consumer<NodeContainer> nodeDisposer) {
+        this.targetSizes = targetSizes;
+        this.nodeFactory = nodeFactory;
+        this.nodeDisposer = nodeDisposer;
+        this.refiller = refiller;
+    }
+
+    /**
+     * Starts provisioning nodes until every browser reaches its target size.
+     */
+    void fill() {
+        targetSizes.keySet().forEach(this::refill);
+    }
+
+    /**
+     * Takes an idle node for the given browser out of the pool and schedules its replacement.
+     *
+     * @param browser Browser of the requested node
+     * @return A warm node, or null if the pool has no idle node for this browser
+     */
+    NodeContainer lease(Browser browser) {
+        if (closed) {
+            return null;
+        }
+        NodeContainer node = getIdleNodes(browser).poll();
+        if (getTargetSize(browser) > 0) {
+            refill(browser);
+        }
+        return node;
+    }
+
+    /**
+     * Returns a recycled node to the pool so a later lease can reuse it.
+     * The node is disposed instead if the pool is already closed.
+     *
+     * @param node A started, registered node that is no longer used by a test
+     */
+    void release(NodeContainer node) {
+        if (closed) {
+            dispose(node);
+            return;
+        }
+        getIdleNodes(node.getBrowser()).offer(node);
+        if (closed && getIdleNodes(node.getBrowser()).remove(node)) {
+            dispose(node);
+        }
+    }
+
+    /**
+     * Stops refilling and disposes every idle node.
+     * Nodes that are being provisioned while the pool closes are disposed once they are ready.
+     */
+    void close() {
+        // Same monitor as refill, so no refill can submit between the closed check and the shutdown
+        synchronized (this) {
+            closed = true;
+            refiller.shutdown();
+        }
+        List<NodeContainer> drained = new ArrayList<>();
+        idleNodes.values().forEach(queue -> queue.drainTo(drained));
+        drained.forEach(this::dispose);
+        try {
+            if (!refiller.awaitTermination(2, TimeUnit.MINUTES)) {
+                log.warn("Node pool refiller did not finish within 2 minutes");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void refill(Browser browser) {
+        if (closed) {
+            return;
+        }
+        AtomicInteger pending = pendingRefills.computeIfAbsent(browser, b -> new AtomicInteger());
+        int missing = getTargetSize(browser) - getIdleNodes(browser).size() - pending.get();
+        for (int i = 0; i < missing; i++) {
+            pending.incrementAndGet();
+            try {
+                refiller.execute(() -> {
+                    try {
+                        provision(browser);
+                    } finally {
+                        pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                pending.decrementAndGet();
+                log.warn("Node pool refiller rejected refill for browser: {}", browser);
+                return;
+            }
+        }
+    }
+
+    private void provision(Browser browser) {
+        NodeContainer node = null;
+        try {
+            node = nodeFactory.apply(browser);
+        } catch (Exception ex) {
+            log.error("Failed to provision warm node for browser: {}", browser, ex);
+        }
+        if (node == null) {
+            return;
+        }
+        if (closed) {
+            dispose(node);
+            return;
+        }
+        getIdleNodes(browser).offer(node);
+        if (closed && getIdleNodes(browser).remove(node)) {
+            // The pool was closed while this node was being queued
+            dispose(node);
+            return;
+        }
+        log.info("Warm node {} added to pool for browser: {}", node.getContainerName(), browser);
+    }
+
+    private void dispose(NodeContainer node) {
+        try {
+            nodeDisposer.accept(node);
+        } catch (Exception ex) {
+            log.error("Failed to dispose pooled node: {}", node.getContainerName(), ex);
+        }
+    }
+
+    private int getTargetSize(Browser browser) {
+        return CommonUtil.nvl(targetSizes.get(browser), 0);
+    }
+
+    private BlockingQueue<NodeContainer> getIdleNodes(Browser browser) {
+        return idleNodes.computeIfAbsent(browser, b -> new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,102 @@
+package com.aarahman;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * NodeDockerConfig renders the TOML configuration of a {@code selenium/node-docker} container, which makes the
+ * grid start a fresh browser container for every new session and remove it when the session ends.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Every browser is mapped to its standalone image with a stereotype of its W3C browser name on Linux</li>
+ *   <li>Safari is skipped, as there is no Safari image for Docker</li>
+ *   <li>The maximum number of sessions overrides the CPU-based limit of the node, because the sessions run in
+ *       their own containers rather than in the node container</li>
+ *   <li>A video image records each session into the node's assets folder, or recording is disabled</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+class NodeDockerConfig {
+
+    /** Folder in which node-docker reads its configuration */
+    static final String CONFIG_FOLDER = "/opt/selenium";
+
+    /** Name of the node-docker configuration file */
+    static final String CONFIG_FILE_NAME = "docker.toml";
+
+    /** Path of the node-docker assets folder, where session videos are stored */
+    static final String ASSETS_PATH = "/opt/selenium/assets";
+
+    private NodeDockerConfig() {
+    }
+
+    /**
+     * Renders the node-docker configuration.
+     *
+     * @param browserImages Standalone image per browser that the grid may start
+     * @param maxSessions Maximum number of concurrent sessions of the node
+     * @param sessionTimeoutSeconds Seconds after which an idle session is removed
+     * @param videoImage Image recording each session, or null to disable recording
+     * @return TOML configuration
+     */
+    static String render(Map<Browser, String> browserImages, int maxSessions, int sessionTimeoutSeconds, String videoImage) {
+        StringBuilder toml = new StringBuilder("[docker]\nconfigs = [\n");
+        browserImages.forEach((browser, image) -> {
+            String browserName = getW3cBrowserName(browser);
+            if (browserName != null) {
+                toml.append("    \"").append(image).append("\", '{\"browserName\": \"").append(browserName)
+                        .append("\", \"platformName\": \"linux\"}',\n");
+            }
+        });
+        toml.append("]\n");
+        toml.append("video-image = \"").append(videoImage == null ? "false" : videoImage).append("\"\n");
+        toml.append("\n[node]\n");
+        toml.append("detect-drivers = false\n");
+        toml.append("override-max-sessions = true\n");
+        toml.append("max-sessions = ").append(maxSessions).append("\n");
+        toml.append("session-timeout = ").append(sessionTimeoutSeconds).append("\n");
+        return toml.toString();
+    }
+
+    /**
+     * Writes a configuration to a file named {@value #CONFIG_FILE_NAME} in a temp folder of the current run,
+     * ready to be copied into the node-docker container.
+     *
+     * @param config TOML configuration
+     * @return The written file
+     * @throws IOException if the file cannot be written
+     */
+    static File write(String config) throws IOException {
+        File folder = new File(System.getProperty("java.io.tmpdir"), "docknium-node-docker-" + ResourceLabels.CURRENT_RUN_ID);
+        Files.createDirectories(folder.toPath());
+        File file = new File(folder, CONFIG_FILE_NAME);
+        Files.write(file.toPath(), config.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Returns the W3C browser name that sessions of the given browser request.
+     *
+     * @param browser The browser
+     * @return The browser name, or null if the browser cannot run in Docker
+     */
+    static String getW3cBrowserName(Browser browser) {
+        switch (browser) {
+            case CHROME:
+            case CHROMIUM:
+                return "chrome";
+            case FIREFOX:
+                return "firefox";
+            case EDGE:
+                return "MicrosoftEdge";
+            default:
+                return null;
+        }
+    }
+}
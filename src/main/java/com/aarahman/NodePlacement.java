@@ -0,0 +1,94 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NodePlacement decides on which Docker host a new node container runs, so that nodes are spread over
+ * several hosts according to their capacities.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Every node goes to the host with the most free capacity (capacity minus nodes placed on it).
+ *       Ties go to the host listed first</li>
+ *   <li>A place on a host is taken with compare-and-set on its node counter, so concurrent placements never
+ *       exceed a host's capacity</li>
+ *   <li>The place is given back when the node container is removed, or when it could not be created</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class NodePlacement {
+
+    private final List<DockerHost> hosts;
+
+    private final Map<DockerHost, AtomicInteger> placedNodes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a placement over the given hosts.
+     *
+     * @param hosts Hosts nodes may be placed on, in order of preference for ties
+     */
+    NodePlacement(List<DockerHost> hosts) {
+        this.hosts = new ArrayList<>(hosts);
+        this.hosts.forEach(host -> placedNodes.put(host, new AtomicInteger()));
+    }
+
+    /**
+     * Takes a place for one node on the host with the most free capacity.
+     *
+     * @return The host the node runs on, or null if every host is full
+     */
+    DockerHost place() {
+        while (true) {
+            DockerHost best = null;
+            int bestFree = 0;
+            for (DockerHost host : hosts) {
+                int free = getFreeCapacity(host);
+                if (free > bestFree) {
+                    best = host;
+                    bestFree = free;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            AtomicInteger placed = placedNodes.get(best);
+            int current = placed.get();
+            if (current < best.getCapacity() && placed.compareAndSet(current, current + 1)) {
+                log.debug("Placed node on {} ({} of {} places in use)", best, current + 1, best.getCapacity());
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Gives back the place of a node on a host. Hosts not managed by this placement are ignored.
+     *
+     * @param host The host the node ran on, may be null
+     */
+    void release(DockerHost host) {
+        AtomicInteger placed = host == null ? null : placedNodes.get(host);
+        if (placed != null) {
+            placed.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    /**
+     * Returns the number of nodes that can still be placed on a host.
+     *
+     * @param host The host
+     * @return Capacity minus nodes placed on the host, 0 for hosts not managed by this placement
+     */
+    int getFreeCapacity(DockerHost host) {
+        AtomicInteger placed = placedNodes.get(host);
+        return placed == null ? 0 : Math.max(0, host.getCapacity() - placed.get());
+    }
+}
@@ -0,0 +1,247 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NodeSlotScheduler packs concurrent test threads onto the free session slots of running multi-session nodes,
+ * so a new node container is only provisioned when every node of the browser is full.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Every shared node has a slot counter. A slot is taken by incrementing the counter with compare-and-set,
+ *       as long as it is below the node's maximum sessions, so threads never block each other</li>
+ *   <li>A node whose last slot is given back is retired by setting its counter to -1, so no thread can take a slot
+ *       on a node that is being removed</li>
+ *   <li>Nodes with the most slots in use are filled first, which keeps the number of nodes that must stay up low</li>
+ *   <li>A node that is still being provisioned is published as pending, so threads arriving at the same time
+ *       reserve its remaining slots and wait for its registration instead of each starting a container.
+ *       If the node cannot be provisioned, its reservations are dropped and the waiting threads try again</li>
+ *   <li>The hub places each session on any free slot of a matching node. The scheduler only makes sure the nodes
+ *       of a browser have as many slots as there are test threads using them</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class NodeSlotScheduler {
+
+    private static final int RETIRED = -1;
+
+    /**
+     * A node that is being provisioned. The provisioning thread holds its first slot.
+     */
+    static final class PendingNode {
+
+        private final Browser browser;
+
+        private final int maxSessions;
+
+        private final AtomicInteger reservedSlots = new AtomicInteger(1);
+
+        private final CompletableFuture<NodeContainer> registration = new CompletableFuture<>();
+
+        private PendingNode(Browser browser, int maxSessions) {
+            this.browser = browser;
+            this.maxSessions = maxSessions;
+        }
+
+        /**
+         * Waits until the node is registered.
+         *
+         * @return The node with a slot reserved for the caller, or null if the node could not be provisioned
+         */
+        NodeContainer await() {
+            return registration.join();
+        }
+    }
+
+    /**
+     * Outcome of {@link #reserve(Browser, int)}: a slot on a running node, or a slot on a pending node that
+     * the caller either waits for or has to provision itself.
+     */
+    static final class Slot {
+
+        final NodeContainer node;
+
+        final PendingNode pendingNode;
+
+        final boolean provisioner;
+
+        private Slot(NodeContainer node, PendingNode pendingNode, boolean provisioner) {
+            this.node = node;
+            this.pendingNode = pendingNode;
+            this.provisioner = provisioner;
+        }
+    }
+
+    private final Map<Browser, Queue<NodeContainer>> sharedNodes = new ConcurrentHashMap<>();
+
+    private final Map<NodeContainer, AtomicInteger> usedSlots = new ConcurrentHashMap<>();
+
+    private final Map<NodeContainer, Integer> maxSessions = new ConcurrentHashMap<>();
+
+    private final Map<Browser, Queue<PendingNode>> pendingNodes = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a slot for a new session of the given browser: on a running node if one has a free slot, otherwise
+     * on a pending node with a free slot, otherwise on a new pending node that the caller has to provision and
+     * complete with {@link #complete(PendingNode, NodeContainer)}.
+     *
+     * @param browser Browser of the requested slot
+     * @param sessions Maximum number of concurrent sessions of a new node
+     * @return The reserved slot
+     */
+    synchronized Slot reserve(Browser browser, int sessions) {
+        NodeContainer node = acquire(browser);
+        if (node != null) {
+            return new Slot(node, null, false);
+        }
+        Queue<PendingNode> pending = getPendingNodes(browser);
+        for (PendingNode pendingNode : pending) {
+            if (tryReserve(pendingNode)) {
+                return new Slot(null, pendingNode, false);
+            }
+        }
+        PendingNode pendingNode = new PendingNode(browser, sessions);
+        pending.offer(pendingNode);
+        return new Slot(null, pendingNode, true);
+    }
+
+    /**
+     * Ends the provisioning of a pending node. A registered node becomes available with as many slots in use
+     * as were reserved on it; a failed one drops its reservations, and the threads waiting for it get null.
+     *
+     * @param pendingNode The pending node returned by {@link #reserve(Browser, int)}
+     * @param node The registered node, or null if it could not be provisioned
+     */
+    void complete(PendingNode pendingNode, NodeContainer node) {
+        synchronized (this) {
+            int reserved = pendingNode.reservedSlots.getAndSet(RETIRED);
+            getPendingNodes(pendingNode.browser).remove(pendingNode);
+            if (node != null) {
+                publish(node, pendingNode.maxSessions, reserved);
+                log.info("Node {} registered with {} of {} slots reserved", node.getContainerName(), reserved, pendingNode.maxSessions);
+            }
+        }
+        pendingNode.registration.complete(node);
+    }
+
+    /**
+     * Takes a free slot on a running node of the given browser.
+     *
+     * @param browser Browser of the requested slot
+     * @return A node with a slot reserved for the caller, or null if every node of the browser is full
+     */
+    NodeContainer acquire(Browser browser) {
+        NodeContainer fullest = null;
+        int fullestUsed = -1;
+        for (NodeContainer node : getSharedNodes(browser)) {
+            AtomicInteger used = usedSlots.get(node);
+            Integer max = maxSessions.get(node);
+            if (used == null || max == null) {
+                continue;
+            }
+            int current = used.get();
+            if (current != RETIRED && current < max && current > fullestUsed) {
+                fullest = node;
+                fullestUsed = current;
+            }
+        }
+        if (fullest != null && tryTakeSlot(fullest)) {
+            log.info("Scheduled session on node {} ({} of {} slots in use)", fullest.getContainerName(),
+                    usedSlots.get(fullest).get(), maxSessions.get(fullest));
+            return fullest;
+        }
+        // Lost the race for the chosen slot, fall back to any node with a free slot
+        for (NodeContainer node : getSharedNodes(browser)) {
+            if (tryTakeSlot(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes a newly provisioned node available for sharing. The caller holds the first slot.
+     *
+     * @param node A started, registered node
+     * @param sessions Maximum number of concurrent sessions of the node
+     */
+    void register(NodeContainer node, int sessions) {
+        publish(node, sessions, 1);
+    }
+
+    /**
+     * Gives back a slot taken by {@link #acquire(Browser)}, {@link #reserve(Browser, int)} or
+     * {@link #register(NodeContainer, int)}.
+     *
+     * @param node The node the slot belongs to
+     * @return true if the node has no slot in use any more and has been retired, or is not shared at all,
+     *         so the caller may remove it; false if other threads still use the node
+     */
+    boolean release(NodeContainer node) {
+        AtomicInteger used = usedSlots.get(node);
+        if (used == null) {
+            return true;
+        }
+        if (used.decrementAndGet() > 0 || !used.compareAndSet(0, RETIRED)) {
+            return false;
+        }
+        usedSlots.remove(node);
+        maxSessions.remove(node);
+        getSharedNodes(node.getBrowser()).remove(node);
+        log.info("Node {} has no session left and is retired", node.getContainerName());
+        return true;
+    }
+
+    private void publish(NodeContainer node, int sessions, int used) {
+        maxSessions.put(node, sessions);
+        usedSlots.put(node, new AtomicInteger(used));
+        getSharedNodes(node.getBrowser()).offer(node);
+    }
+
+    private static boolean tryReserve(PendingNode pendingNode) {
+        while (true) {
+            int current = pendingNode.reservedSlots.get();
+            if (current == RETIRED || current >= pendingNode.maxSessions) {
+                return false;
+            }
+            if (pendingNode.reservedSlots.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Queue<PendingNode> getPendingNodes(Browser browser) {
+        return pendingNodes.computeIfAbsent(browser, key -> new ConcurrentLinkedQueue<>());
+    }
+
+    private boolean tryTakeSlot(NodeContainer node) {
+        AtomicInteger used = usedSlots.get(node);
+        Integer max = maxSessions.get(node);
+        if (used == null || max == null) {
+            return false;
+        }
+        while (true) {
+            int current = used.get();
+            if (current == RETIRED || current >= max) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Queue<NodeContainer> getSharedNodes(Browser browser) {
+        return sharedNodes.computeIfAbsent(browser, key -> new ConcurrentLinkedQueue<>());
+    }
+}
@@ -0,0 +1,181 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PortAllocator hands out host ports for hub, event bus and VNC port bindings from a fixed port range,
+ * so that no two threads or JVMs get the same port before Docker has bound it.
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Ports reserved in this JVM are tracked in a bitmap with one bit per port. A port is reserved by setting
+ *       its bit with compare-and-set, so threads never block each other</li>
+ *   <li>Ports are reserved across JVMs by locking the port's byte in a shared lock file in the temp directory.
+ *       The operating system releases these locks when a JVM exits, even if it crashed</li>
+ *   <li>A port that another process is listening on is skipped</li>
+ *   <li>The search starts where the previous one ended, so freshly released ports are reused last</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class PortAllocator {
+
+    /** File whose bytes are locked, one per port, to reserve ports across JVMs */
+    private static final File LOCK_FILE = new File(System.getProperty("java.io.tmpdir"), "docknium-ports.lock");
+
+    private final int firstPort;
+
+    private final int portCount;
+
+    private final AtomicLongArray reservedPorts;
+
+    private final AtomicInteger nextCandidate = new AtomicInteger();
+
+    private final Map<Integer, FileLock> portLocks = new ConcurrentHashMap<>();
+
+    private final FileChannel lockChannel;
+
+    /**
+     * Creates an allocator for the given port range.
+     *
+     * @param firstPort First port of the range
+     * @param lastPort Last port of the range, inclusive
+     */
+    PortAllocator(int firstPort, int lastPort) {
+        if (firstPort < 1 || lastPort > 65535 || firstPort > lastPort) {
+            throw new IllegalArgumentException("Invalid port range: " + firstPort + "-" + lastPort);
+        }
+        this.firstPort = firstPort;
+        this.portCount = lastPort - firstPort + 1;
+        this.reservedPorts = new AtomicLongArray((portCount + 63) / 64);
+        this.lockChannel = openLockChannel();
+    }
+
+    /**
+     * Reserves a free port of the range.
+     *
+     * @return The reserved port
+     * @throws IllegalStateException if every port of the range is reserved or in use
+     */
+    int allocate() {
+        int start = Math.floorMod(nextCandidate.getAndIncrement(), portCount);
+        for (int offset = 0; offset < portCount; offset++) {
+            int index = (start + offset) % portCount;
+            if (!tryReserveBit(index)) {
+                continue;
+            }
+            int port = firstPort + index;
+            if (tryLockAcrossJvms(port) && isBindable(port)) {
+                nextCandidate.set(index + 1);
+                log.debug("Allocated port {}", port);
+                return port;
+            }
+            releaseLock(port);
+            clearBit(index);
+        }
+        throw new IllegalStateException("No free port left in range " + firstPort + "-" + (firstPort + portCount - 1));
+    }
+
+    /**
+     * Returns a port to the range. Releasing a port that is not reserved has no effect.
+     *
+     * @param port The port to release, may be null
+     */
+    void release(Integer port) {
+        if (port == null || port < firstPort || port >= firstPort + portCount) {
+            return;
+        }
+        releaseLock(port);
+        clearBit(port - firstPort);
+        log.debug("Released port {}", port);
+    }
+
+    private boolean tryReserveBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << (index & 63);
+        while (true) {
+            long current = reservedPorts.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (reservedPorts.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private void clearBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << (index & 63);
+        while (true) {
+            long current = reservedPorts.get(word);
+            if (reservedPorts.compareAndSet(word, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryLockAcrossJvms(int port) {
+        if (lockChannel == null) {
+            return true;
+        }
+        try {
+            FileLock lock = lockChannel.tryLock(port, 1, false);
+            if (lock == null) {
+                return false;
+            }
+            portLocks.put(port, lock);
+            return true;
+        } catch (OverlappingFileLockException | IOException ex) {
+            log.debug("Unable to lock port {}", port, ex);
+            return false;
+        }
+    }
+
+    private void releaseLock(int port) {
+        FileLock lock = portLocks.remove(port);
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException ex) {
+                log.debug("Unable to release lock of port {}", port, ex);
+            }
+        }
+    }
+
+    private static boolean isBindable(int port) {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.setReuseAddress(false);
+            serverSocket.bind(new InetSocketAddress(port));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private static FileChannel openLockChannel() {
+        try {
+            // Kept open for the lifetime of the JVM, closing it would release every port lock
+            return new RandomAccessFile(LOCK_FILE, "rw").getChannel();
+        } catch (IOException ex) {
+            log.warn("Unable to open port lock file {}. Ports are only coordinated within this JVM: {}", LOCK_FILE, ex.getMessage());
+            return null;
+        }
+    }
+}
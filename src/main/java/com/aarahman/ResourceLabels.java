@@ -0,0 +1,112 @@
+package com.aarahman;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ResourceLabels defines the Docker labels put on every container and network created by {@link SeleniumGridUtil}.
+ * The labels let cleanup find this library's resources with daemon-side filters, and tell apart the resources
+ * of the current run from those left behind by other runs or other JVMs on a shared host.
+ *
+ * <p>Labels:
+ * <ul>
+ *   <li>{@value #LIBRARY}: always {@value #LIBRARY_NAME}</li>
+ *   <li>{@value #RUN_ID}: random ID of the JVM that created the resource</li>
+ *   <li>{@value #ROLE}: hub, node, video or network</li>
+ *   <li>{@value #OWNER_PID}: process ID of the JVM that created the resource</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+class ResourceLabels {
+
+    static final String LIBRARY = "com.aarahman.docknium";
+
+    static final String LIBRARY_NAME = "docknium";
+
+    static final String RUN_ID = "com.aarahman.docknium.run-id";
+
+    static final String ROLE = "com.aarahman.docknium.role";
+
+    static final String OWNER_PID = "com.aarahman.docknium.owner-pid";
+
+    /** ID of the current run, shared by all resources created in this JVM */
+    static final String CURRENT_RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    /** Start of the current run. Resources created before it cannot belong to the current run */
+    static final long CURRENT_RUN_STARTED_EPOCH_SECOND = ManagementFactory.getRuntimeMXBean().getStartTime() / 1000;
+
+    /**
+     * Roles of the resources created by this library.
+     */
+    enum Role {
+        HUB, NODE, VIDEO, NETWORK;
+
+        String getLabelValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    private ResourceLabels() {
+    }
+
+    /**
+     * Returns the labels of a resource of the given role created by the current run.
+     *
+     * @param role Role of the resource
+     * @return Labels to put on the container or network
+     */
+    static Map<String, String> forRole(Role role) {
+        Map<String, String> labels = new HashMap<>();
+        labels.put(LIBRARY, LIBRARY_NAME);
+        labels.put(RUN_ID, CURRENT_RUN_ID);
+        labels.put(ROLE, role.getLabelValue());
+        labels.put(OWNER_PID, String.valueOf(ProcessHandle.current().pid()));
+        return labels;
+    }
+
+    /**
+     * Returns the time before which a resource counts as stale: older than the given age and created before the
+     * current run started, so a filter on this time never matches a resource of the current run.
+     *
+     * @param age Minimum age of a stale resource
+     * @return Cut-off time in epoch seconds
+     */
+    static long staleBefore(Duration age) {
+        return Math.min(Instant.now().minus(age).getEpochSecond(), CURRENT_RUN_STARTED_EPOCH_SECOND - 1);
+    }
+
+    /**
+     * Checks whether a resource was created by the current run.
+     *
+     * @param labels Labels of the resource, may be null
+     * @return true if the resource carries the current run ID
+     */
+    static boolean isCurrentRun(Map<String, String> labels) {
+        return labels != null && CURRENT_RUN_ID.equals(labels.get(RUN_ID));
+    }
+
+    /**
+     * Returns the label filter matching every resource created by this library, in the "key=value" form of
+     * the daemon's label filters.
+     *
+     * @return Label filter
+     */
+    static String libraryFilter() {
+        return LIBRARY + "=" + LIBRARY_NAME;
+    }
+
+    /**
+     * Returns the label filter matching the resources created by the current run.
+     *
+     * @return Label filter
+     */
+    static String currentRunFilter() {
+        return RUN_ID + "=" + CURRENT_RUN_ID;
+    }
+}
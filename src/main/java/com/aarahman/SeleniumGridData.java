@@ -4,6 +4,14 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Getter
 @Setter
 @Builder
@@ -40,4 +48,124 @@ public class SeleniumGridData {
 
     @Builder.Default
     private String screenHeight = "1080";
+
+    @Builder.Default
+    private int portRangeStart = 24000;
+
+    @Builder.Default
+    private int portRangeEnd = 24999;
+
+    @Builder.Default
+    private boolean useEphemeralPorts = false;
+
+    @Builder.Default
+    private boolean standaloneMode = false;
+
+    @Builder.Default
+    private boolean dynamicGrid = false;
+
+    @Builder.Default
+    private Set<Browser> dynamicGridBrowsers = EnumSet.noneOf(Browser.class);
+
+    @Builder.Default
+    private int dynamicGridMaxSessions = Runtime.getRuntime().availableProcessors();
+
+    @Builder.Default
+    private Duration dynamicGridSessionTimeout = Duration.ofSeconds(600);
+
+    @Builder.Default
+    private String dockerSocketPath = "/var/run/docker.sock";
+
+    @Builder.Default
+    private List<DockerHost> nodeHosts = new ArrayList<>();
+
+    @Builder.Default
+    private String primaryHostAddress = null;
+
+    @Builder.Default
+    private boolean admissionControl = false;
+
+    @Builder.Default
+    private Duration admissionTimeout = Duration.ofMinutes(10);
+
+    @Builder.Default
+    private double admissionMemoryFraction = 0.9;
+
+    @Builder.Default
+    private double nodeCpuReservation = 1.0;
+
+    @Builder.Default
+    private boolean prefetchImages = true;
+
+    @Builder.Default
+    private Set<Browser> prefetchBrowsers = EnumSet.noneOf(Browser.class);
+
+    @Builder.Default
+    private ImageCatalog imageCatalog = ImageCatalog.builder().build();
+
+    @Builder.Default
+    private boolean offlineMode = false;
+
+    @Builder.Default
+    private String imageArchiveFolderAbsolutePath = System.getProperty("user.dir") + "/images";
+
+    @Builder.Default
+    private ImagePullPolicy imagePullPolicy = ImagePullPolicy.ONCE_PER_JVM;
+
+    @Builder.Default
+    private Duration imagePullTtl = Duration.ofHours(24);
+
+    @Builder.Default
+    private Duration hubReadinessTimeout = Duration.ofSeconds(60);
+
+    @Builder.Default
+    private Duration readinessPollInitialBackoff = Duration.ofMillis(50);
+
+    @Builder.Default
+    private Duration readinessPollMaxBackoff = Duration.ofMillis(500);
+
+    @Builder.Default
+    private boolean trackContainerEvents = true;
+
+    @Builder.Default
+    private long imageDiskBudgetBytes = 0;
+
+    @Builder.Default
+    private JanitorMode janitorMode = JanitorMode.INLINE;
+
+    @Builder.Default
+    private Duration janitorInterval = Duration.ofHours(1);
+
+    @Builder.Default
+    private int cleanupParallelism = 8;
+
+    @Builder.Default
+    private Duration cleanupOperationTimeout = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private Map<Browser, Integer> nodePoolSize = new EnumMap<>(Browser.class);
+
+    @Builder.Default
+    private int nodePoolRefillThreads = 2;
+
+    @Builder.Default
+    private Duration nodeRegistrationTimeout = Duration.ofSeconds(60);
+
+    @Builder.Default
+    private int nodeProvisioningParallelism = 8;
+
+    @Builder.Default
+    private boolean useVirtualThreads = false;
+
+    @Builder.Default
+    private boolean recycleNodes = false;
+
+    @Builder.Default
+    private Map<Browser, Integer> maxSessionsPerNode = new EnumMap<>(Browser.class);
+
+    @Builder.Default
+    private Set<Browser> overrideMaxSessions = EnumSet.noneOf(Browser.class);
+
+    @Builder.Default
+    private int maxNodeReuses = 20;
 }
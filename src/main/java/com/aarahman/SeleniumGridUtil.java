@@ -1,8 +1,10 @@
 package com.aarahman;
 
 import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerResponse;
-import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.PruneCmd;
 import com.github.dockerjava.api.model.*;
 import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientBuilder;
@@ -13,13 +15,22 @@ import com.github.dockerjava.transport.DockerHttpClient;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.openqa.selenium.net.PortProber;
 
 import java.io.File;
+import java.net.InetAddress;
 import java.net.URL;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 import static com.aarahman.CommonUtil.*;
 
@@ -58,22 +69,35 @@ public class SeleniumGridUtil {
     // CONSTANTS AND STATIC FIELDS
     // ========================================
 
-    /** Docker image name for Selenium Hub */
-    private static final String SELENIUM_HUB_IMAGE_NAME = "selenium/hub:latest";
-
-    /** Docker image name template for Selenium Node (browser placeholder will be replaced) */
-    private static String SELENIUM_NODE_IMAGE_NAME = "selenium/node-<BROWSER>:latest";
-
-    /** Docker image name for video recording container */
-    private static final String VIDEO_IMAGE_NAME = "selenium/video:latest";
-
     /** Container name prefix for video recording containers */
     private static final String VIDEO_CONTAINER_NAME = "video";
 
     /** Default download path inside the Selenium node container */
     public static final String DOWNLOAD_PATH = "/home/seluser/Downloads";
 
-    /** Base network name for Docker network (will be suffixed with hub port) */
+    /** Shell command that clears downloads and leftover browser profiles inside a recycled node */
+    private static final String NODE_STATE_CLEANUP_COMMAND = "rm -rf " + DOWNLOAD_PATH + "/* " + DOWNLOAD_PATH + "/.[!.]*"
+            + " /tmp/.org.chromium.Chromium.* /tmp/.com.google.Chrome.* /tmp/.com.microsoft.Edge.* /tmp/rust_mozprofile*";
+
+    /** Memory limit of the hub container. Its shared memory is charged to the same limit */
+    private static final long HUB_MEMORY_BYTES = 2L * 1024 * 1024 * 1024;
+
+    /** Memory limit of a node container. Its shared memory is charged to the same limit */
+    private static final long NODE_MEMORY_BYTES = 2L * 1024 * 1024 * 1024;
+
+    /** Memory reserved for a video container, which has no memory limit */
+    private static final long VIDEO_MEMORY_BYTES = 256L * 1024 * 1024;
+
+    /** CPUs reserved for the hub container */
+    private static final double HUB_CPUS = 0.5;
+
+    /** CPUs reserved for a video container */
+    private static final double VIDEO_CPUS = 0.5;
+
+    /** Number of node ports tried on a remote node host before the launch fails */
+    private static final int REMOTE_NODE_PORT_ATTEMPTS = 5;
+
+    /** Base network name for Docker network (will be suffixed with hub port, or run ID with ephemeral ports) */
     private static String networkName = "AarahmanGrid";
 
     // ========================================
@@ -86,6 +110,9 @@ public class SeleniumGridUtil {
     /** Docker client instance for container operations */
     private DockerClient dockerClient;
 
+    /** Resolves images locally and decides when they need to be pulled from the registry */
+    private ImageResolver imageResolver;
+
     /** Configuration data for Selenium Grid setup */
     @Getter
     private final SeleniumGridData seleniumGridData;
@@ -103,10 +130,17 @@ public class SeleniumGridUtil {
     /** Container ID of the hub (static to ensure single hub per suite) */
     private static String hubContainerId;
 
+    /** Whether the grid has been launched in standalone mode, which has no hub container */
+    private static boolean standaloneGridLaunched;
+
     /** Port number for the Selenium Hub */
     @Getter
     private static Integer hubPort;
 
+    /** Time the hub took from container start until it answered its status endpoint (null until measured) */
+    @Getter
+    private static Duration hubTimeToReady;
+
     /** Port number for event bus publishing */
     private static Integer eventBusPublishPort;
 
@@ -117,14 +151,66 @@ public class SeleniumGridUtil {
     // THREAD-LOCAL VARIABLES FOR NODE MANAGEMENT
     // ========================================
 
-    /** Thread-local storage for node container IDs (allows multiple nodes per thread) */
-    private static final ThreadLocal<String> nodeContainerId = new ThreadLocal<>();
+    /** Thread-local storage for the node container (and its video container) used by the current thread */
+    private static final ThreadLocal<NodeContainer> currentNode = new ThreadLocal<>();
+
+    // ========================================
+    // NODE POOL AND GRID STATUS
+    // ========================================
+
+    /** Warm pool of started, hub-registered node containers (null when no pool size is configured) */
+    private volatile NodeContainerPool nodeContainerPool;
+
+    /** Packs test threads onto the free session slots of multi-session nodes */
+    private final NodeSlotScheduler nodeSlotScheduler = new NodeSlotScheduler();
+
+    /** The node-docker container of the dynamic grid (null unless the dynamic grid is running) */
+    private NodeContainer dynamicGridNode;
+
+    /** Node containers launched in bulk by launchNodes and not yet removed */
+    private final Set<NodeContainer> bulkNodes = ConcurrentHashMap.newKeySet();
+
+    /** Client used to read the hub's /status endpoint */
+    private final GridStatusClient gridStatusClient = new GridStatusClient();
+
+    /** Executor running the asynchronous lifecycle API */
+    private final ExecutorService lifecycleExecutor;
+
+    /** State table of the containers created by this library, fed by the Docker events stream */
+    private final ContainerStateTracker containerStateTracker;
+
+    /** Removes containers, networks and images with bounded parallelism */
+    private final CleanupEngine cleanupEngine;
+
+    /** Runs the cleanup of resources left behind by earlier runs */
+    private final StaleResourceJanitor staleResourceJanitor;
+
+    /** Keeps Selenium images within the configured disk budget */
+    private final ImageGarbageCollector imageGarbageCollector;
+
+    /** Reserves host ports for hub, event bus and VNC port bindings */
+    private final PortAllocator portAllocator;
+
+    /** Places node containers on the configured node hosts (null when every node runs on the primary host) */
+    private final NodePlacement nodePlacement;
+
+    /** Docker clients of the node hosts other than the primary host */
+    private final Map<DockerHost, DockerClient> hostClients = new ConcurrentHashMap<>();
+
+    /** Image resolvers of the node hosts other than the primary host */
+    private final Map<DockerHost, ImageResolver> hostImageResolvers = new ConcurrentHashMap<>();
+
+    /** Admission controller of the primary host (null when admission control is disabled) */
+    private final AdmissionController admissionController;
 
-    /** Thread-local storage for video container IDs */
-    private static final ThreadLocal<String> videoContainerId = new ThreadLocal<>();
+    /** Admission controllers of the node hosts other than the primary host */
+    private final Map<DockerHost, AdmissionController> hostAdmissionControllers = new ConcurrentHashMap<>();
 
-    /** Thread-local storage for VNC port numbers */
-    private static final ThreadLocal<Integer> currentVncPort = new ThreadLocal<>();
+    /** Resources reserved by admission control, per container ID, until the container is removed */
+    private final Map<String, AdmissionController.Reservation> admittedContainers = new ConcurrentHashMap<>();
+
+    /** Sequence number making node container names unique when host ports are assigned by the daemon */
+    private final AtomicInteger nodeSequence = new AtomicInteger();
 
 
     // ========================================
@@ -163,26 +249,44 @@ public class SeleniumGridUtil {
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Initializes available ports for hub and event bus communication</li>
-     *   <li>Performs cleanup of old containers and networks if configured</li>
+     *   <li>Initializes available ports for hub and event bus communication, unless the daemon assigns them</li>
+     *   <li>Cleans up stale containers, images and networks as configured by the janitor mode: before creating the hub
+     *       (INLINE), while pulling and starting the hub (CONCURRENT) or periodically in the background (SCHEDULED).
+     *       INLINE and CONCURRENT cleanups are skipped if a cleanup already completed in this JVM</li>
+     *   <li>Subscribes to the Docker events stream to track the state of the containers it creates, if configured</li>
      *   <li>Creates Docker network for grid communication</li>
      *   <li>Pulls and creates hub container with proper port bindings</li>
+     *   <li>In standalone mode, creates neither network nor hub: every node is a standalone container that
+     *       serves WebDriver itself</li>
+     *   <li>In dynamic grid mode, also launches a single node-docker container that starts a browser container
+     *       for every new session, so no node has to be launched per test</li>
+     *   <li>Blocks until the hub answers its /status endpoint, polling with the configured backoff,
+     *       so getUrl() is usable as soon as this method returns. The wait is available as getHubTimeToReady()</li>
      *   <li>Skips hub creation if already launched (supports multiple node launches)</li>
      * </ul>
      *
      * @throws RuntimeException if port initialization fails or Docker operations fail
+     * @see #launchGridAsync()
      */
-    public void launchGrid() {
+    public synchronized void launchGrid() {
         initPorts();
-        if(seleniumGridData.isRemoveContainersOlderThan24Hours()) {
-            removeContainersOlderThan24Hours();
-        }
-        if(seleniumGridData.isRemoveNetworkOlderThan24Hours()) {
-            stopOldContainersImagesNetwork();
-        }
-        if (hubContainerId == null) { //There could be multiple nodes getting launched - Chrome node, Firefox node etc. But a suite will have only one hub and one network. Once hub is launched, it shouldn't be launched again.
-            createNetwork();
-            pullAndCreateHubContainer();
+        startStaleResourceCleanup();
+        if (!isGridLaunched()) { //There could be multiple nodes getting launched - Chrome node, Firefox node etc. But a suite will have only one hub and one network. Once hub is launched, it shouldn't be launched again.
+            if (seleniumGridData.isTrackContainerEvents()) {
+                containerStateTracker.start();
+            }
+            if (seleniumGridData.isStandaloneMode()) {
+                standaloneGridLaunched = true;
+                log.info("Standalone mode: nodes are launched as standalone containers without hub and network");
+            } else {
+                createNetwork();
+                pullAndCreateHubContainer();
+                awaitHubReadiness();
+                if (seleniumGridData.isDynamicGrid()) {
+                    launchDynamicGridNode();
+                }
+            }
+            startNodeContainerPool();
         }
     }
 
@@ -210,25 +314,199 @@ public class SeleniumGridUtil {
      * <p>Implementation details:
      * <ul>
      *   <li>Automatically launches grid infrastructure if not already running</li>
-     *   <li>Pulls appropriate browser-specific Docker image</li>
+     *   <li>Takes a free slot on a running node of the browser when its nodes run several sessions
+     *       (maxSessionsPerNode), so only a full set of nodes leads to a new container</li>
+     *   <li>Leases a warm node from the node pool when one is available for the browser</li>
+     *   <li>Otherwise pulls appropriate browser-specific Docker image</li>
      *   <li>Creates node container with proper environment variables and port bindings</li>
      *   <li>Configures VNC access for remote debugging</li>
      *   <li>Sets up volume binding for file downloads</li>
+     *   <li>Returns only once the node has registered with the hub and has a free slot, so the first
+     *       session is not left waiting in the hub's new-session queue</li>
      *   <li>Launches video recording container if enabled</li>
      *   <li>Provides VNC URL for monitoring test execution</li>
+     *   <li>Does nothing in dynamic grid mode, where the grid starts a browser container for every session</li>
      * </ul>
      *
      * @param browser The browser type for which to launch the node (CHROME, FIREFOX, EDGE, etc.)
      * @throws RuntimeException if Docker operations fail or browser is unsupported
      */
     public void launchNode(Browser browser) {
-        if(hubPort == null) {
+        launchNode(browser, null);
+    }
+
+    /**
+     * Launches a Selenium node container for a specific version of the specified browser.
+     * The node image is taken from the image catalog, so several versions of one browser can run side by side.
+     * Nodes of a non-default version are never taken from or returned to the node pool.
+     *
+     * @param browser The browser type for which to launch the node
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @see ImageCatalog#pinNodeImage(Browser, String, String)
+     */
+    public void launchNode(Browser browser, String browserVersion) {
+        currentNode.set(provisionNode(browser, browserVersion));
+    }
+
+    /**
+     * Binds a node container to the current thread, as if it had been launched by {@link #launchNode(Browser)}.
+     * Use this to adopt a node returned by {@link #launchNodeAsync(Browser)} on the test thread, so that
+     * {@link #getCurrentVncUrl()} and {@link #stopAndRemoveNodeContainer()} refer to it.
+     *
+     * @param node The node container to bind to the current thread
+     */
+    public void attachNode(NodeContainer node) {
+        currentNode.set(node);
+    }
+
+    /**
+     * Launches the given number of node containers for the specified browser in parallel.
+     *
+     * @param browser The browser type of the nodes
+     * @param count Number of nodes to launch
+     * @return Handles of the nodes that registered with the hub
+     * @see #launchNodes(Map)
+     */
+    public List<NodeContainer> launchNodes(Browser browser, int count) {
+        Map<Browser, Integer> nodeCounts = new EnumMap<>(Browser.class);
+        nodeCounts.put(browser, count);
+        return launchNodes(nodeCounts);
+    }
+
+    /**
+     * Launches node containers for several browsers in parallel and waits until all of them are registered.
+     * The nodes are not bound to the calling thread; the hub routes new sessions to any of them.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Automatically launches grid infrastructure if not already running</li>
+     *   <li>Pulls every node image (and the video image if recording is enabled) once, in parallel</li>
+     *   <li>Creates and starts the containers concurrently, bounded by nodeProvisioningParallelism</li>
+     *   <li>Returns once every node has registered with the hub or failed to do so</li>
+     *   <li>Nodes that fail to start or register are removed and left out of the result</li>
+     *   <li>The nodes are removed by {@link #stopAndRemoveNodes(Collection)} or {@link #stopGridIfAvailable()}</li>
+     * </ul>
+     *
+     * @param nodeCounts Number of nodes to launch per browser
+     * @return Handles of the nodes that registered with the hub
+     */
+    public List<NodeContainer> launchNodes(Map<Browser, Integer> nodeCounts) {
+        if(!isGridLaunched()) {
             launchGrid();
         }
-        pullAndCreateNodeContainer(browser);
-        if(seleniumGridData.isRecordVideo()) {
-            pullAndCreateVideoContainer();
+        int total = nodeCounts.values().stream().mapToInt(count -> nvl(count, 0)).sum();
+        if (total <= 0) {
+            return new ArrayList<>();
         }
+        ExecutorService executor = DockerExecutors.newFixedExecutor("docknium-provisioner",
+                Math.min(total, seleniumGridData.getNodeProvisioningParallelism()), seleniumGridData.isUseVirtualThreads());
+        try {
+            List<CompletableFuture<Void>> pulls = new ArrayList<>();
+            nodeCounts.keySet().forEach(browser -> pulls.add(CompletableFuture.runAsync(() -> pullNodeImage(browser, null), executor)));
+            if (seleniumGridData.isRecordVideo()) {
+                pulls.add(CompletableFuture.runAsync(this::pullVideoImage, executor));
+            }
+            CompletableFuture.allOf(pulls.toArray(new CompletableFuture[0])).join();
+
+            List<CompletableFuture<NodeContainer>> launches = new ArrayList<>();
+            nodeCounts.forEach((browser, count) -> {
+                for (int i = 0; i < nvl(count, 0); i++) {
+                    launches.add(CompletableFuture.supplyAsync(() -> createBulkNodeContainer(browser), executor));
+                }
+            });
+            List<NodeContainer> nodes = new ArrayList<>();
+            for (CompletableFuture<NodeContainer> launch : launches) {
+                NodeContainer node = launch.join();
+                if (node != null) {
+                    nodes.add(node);
+                }
+            }
+            bulkNodes.addAll(nodes);
+            log.info("{} of {} requested nodes registered with the hub", nodes.size(), total);
+            return nodes;
+        } catch (Exception ex) {
+            log.error("Failed to launch nodes: {}", nodeCounts, ex);
+            return new ArrayList<>();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stops and removes node containers returned by {@link #launchNodes(Map)}, several at a time.
+     *
+     * @param nodes The node containers to remove
+     */
+    public void stopAndRemoveNodes(Collection<NodeContainer> nodes) {
+        List<NodeContainer> nodesToRemove = new ArrayList<>(nodes);
+        bulkNodes.removeAll(nodesToRemove);
+        cleanupEngine.removeAll("node containers", nodesToRemove, NodeContainer::getContainerId, this::removeNodeContainer);
+    }
+
+    // ========================================
+    // PUBLIC API METHODS - ASYNCHRONOUS LIFECYCLE
+    // ========================================
+
+    /**
+     * Non-blocking variant of {@link #launchGrid()}.
+     * Lets the caller overlap grid provisioning with its own setup work.
+     *
+     * @return Future completed once the hub container has been started and answers its status endpoint
+     */
+    public CompletableFuture<Void> launchGridAsync() {
+        return CompletableFuture.runAsync(this::launchGrid, lifecycleExecutor);
+    }
+
+    /**
+     * Non-blocking variant of {@link #launchNode()} using the browser from configuration.
+     *
+     * @return Future completed with the node container handle
+     * @see #launchNodeAsync(Browser)
+     */
+    public CompletableFuture<NodeContainer> launchNodeAsync() {
+        return launchNodeAsync(seleniumGridData.getBrowser());
+    }
+
+    /**
+     * Non-blocking variant of {@link #launchNode(Browser)}, including the video container if recording is enabled.
+     * The node is not bound to any thread; call {@link #attachNode(NodeContainer)} on the test thread to adopt it.
+     *
+     * @param browser The browser type for which to launch the node
+     * @return Future completed with the node container handle, or with null if the node could not be created
+     */
+    public CompletableFuture<NodeContainer> launchNodeAsync(Browser browser) {
+        return CompletableFuture.supplyAsync(() -> provisionNode(browser, null), lifecycleExecutor);
+    }
+
+    /**
+     * Non-blocking variant of {@link #stopAndRemoveNodeContainer()}.
+     * The current thread's node is detached immediately and removed (or recycled) in the background.
+     *
+     * @return Future completed once the node has been removed or recycled
+     */
+    public CompletableFuture<Void> stopAndRemoveNodeContainerAsync() {
+        NodeContainer node = currentNode.get();
+        currentNode.remove();
+        return stopAndRemoveNodeContainerAsync(node);
+    }
+
+    /**
+     * Non-blocking removal (or recycling) of the given node container.
+     *
+     * @param node The node container to remove, may be null
+     * @return Future completed once the node has been removed or recycled
+     */
+    public CompletableFuture<Void> stopAndRemoveNodeContainerAsync(NodeContainer node) {
+        return CompletableFuture.runAsync(() -> releaseNodeContainer(node), lifecycleExecutor);
+    }
+
+    /**
+     * Non-blocking variant of {@link #stopGridIfAvailable()}.
+     *
+     * @return Future completed once the grid has been stopped and cleaned up
+     */
+    public CompletableFuture<Void> stopGridIfAvailableAsync() {
+        return CompletableFuture.runAsync(this::stopGridIfAvailable, lifecycleExecutor);
     }
 
     private void initialiseDockerClient() {
@@ -263,21 +541,43 @@ public class SeleniumGridUtil {
      * <p>Implementation details:
      * <ul>
      *   <li>Checks if grid was actually launched before attempting cleanup</li>
+     *   <li>Removes the node-docker container of the dynamic grid, which stops the browser containers it started</li>
+     *   <li>Shuts down the node pool and removes its idle node containers</li>
+     *   <li>Removes node containers launched by launchNodes that are still running</li>
+     *   <li>Removes node and video containers this library created but never removed, as recorded in the container state table</li>
      *   <li>Performs comprehensive cleanup of containers, images, and networks</li>
-     *   <li>Removes the Docker network created for grid communication</li>
+     *   <li>Removes the Docker network created for grid communication, unless running in standalone mode</li>
      *   <li>Gracefully handles cases where no grid was launched</li>
      * </ul>
      *
      * <p>This method is typically called from @AfterSuite methods in test frameworks.
      */
     public void stopGridIfAvailable() {
-        if (hubContainerId == null) {
+        if (!isGridLaunched()) {
             log.info("No Grid launched for this suite. Skipping stopGridIfAvailable()");
             return;
         }
+        if (dynamicGridNode != null) {
+            try {
+                removeNodeContainer(dynamicGridNode);
+            } catch (Exception ex) {
+                log.error("Unable to remove the dynamic grid node container: {}", ex.getMessage());
+            }
+            dynamicGridNode = null;
+        }
+        if (nodeContainerPool != null) {
+            nodeContainerPool.close();
+            nodeContainerPool = null;
+        }
+        stopAndRemoveNodes(bulkNodes);
+        removeLeakedContainers();
         // First stop all containers, then remove network
         stopOldContainersImagesNetwork();
-        removeNetwork();
+        if (!standaloneGridLaunched) {
+            removeNetwork();
+        }
+        staleResourceJanitor.close();
+        containerStateTracker.close();
     }
 
     /**
@@ -289,12 +589,44 @@ public class SeleniumGridUtil {
      *   <li>Removes containers older than 24 hours if configured</li>
      *   <li>Removes dangling Docker images if configured</li>
      *   <li>Removes networks older than 24 hours if configured</li>
+     *   <li>Removes least recently used Selenium images beyond the disk budget if configured</li>
      *   <li>Each cleanup operation is conditional based on seleniumGridData settings</li>
+     *   <li>Never removes containers or networks of the current run</li>
+     *   <li>Joins a cleanup that is already running instead of starting a second one</li>
      * </ul>
      *
      * <p>This method can be called independently or as part of grid lifecycle management.
      */
     public void stopOldContainersImagesNetwork() {
+        staleResourceJanitor.run();
+    }
+
+    /**
+     * Starts the cleanup of stale resources according to the configured janitor mode.
+     */
+    private void startStaleResourceCleanup() {
+        switch (nvl(seleniumGridData.getJanitorMode(), JanitorMode.INLINE)) {
+            case SCHEDULED:
+                staleResourceJanitor.schedule(seleniumGridData.getJanitorInterval());
+                break;
+            case CONCURRENT:
+                if (!staleResourceJanitor.hasCompletedOnce()) {
+                    staleResourceJanitor.runAsync();
+                }
+                break;
+            case INLINE:
+            default:
+                if (!staleResourceJanitor.hasCompletedOnce()) {
+                    staleResourceJanitor.run();
+                }
+        }
+    }
+
+    /**
+     * Removes the stale containers, dangling images and networks enabled in the configuration, each once.
+     * Run by the stale resource janitor.
+     */
+    private void cleanStaleResources() {
         if (seleniumGridData.isRemoveContainersOlderThan24Hours()) {
             removeContainersOlderThan24Hours();
         }
@@ -304,6 +636,9 @@ public class SeleniumGridUtil {
         if (seleniumGridData.isRemoveNetworkOlderThan24Hours()) {
             removeNetworksOlderThan24Hours();
         }
+        if (seleniumGridData.getImageDiskBudgetBytes() > 0) {
+            removeLeastRecentlyUsedImages();
+        }
     }
 
     /**
@@ -313,6 +648,8 @@ public class SeleniumGridUtil {
      * <p>Implementation details:
      * <ul>
      *   <li>Uses thread-local storage to identify the correct node container</li>
+     *   <li>Gives back the thread's slot on a multi-session node, the node is only removed once no thread uses it</li>
+     *   <li>In recycle mode, cleans the node and returns it for reuse instead of removing it</li>
      *   <li>Gracefully stops the container before removal</li>
      *   <li>Provides feedback about video file location if video recording was enabled</li>
      *   <li>Handles cases where no node container exists for the current thread</li>
@@ -322,19 +659,36 @@ public class SeleniumGridUtil {
      * <p>This method is typically called from @AfterMethod in test frameworks.
      */
     public void stopAndRemoveNodeContainer() {
+        NodeContainer node = currentNode.get();
+        currentNode.remove();
+        releaseNodeContainer(node);
+    }
+
+    /**
+     * Removes the given node container, or recycles it in recycle mode.
+     *
+     * @param node The node container used by a test, may be null
+     */
+    private void releaseNodeContainer(NodeContainer node) {
+        if (node == null) {
+            return;
+        }
+        if (!nodeSlotScheduler.release(node)) {
+            log.info("Node {} is still used by other sessions, keeping it", node.getContainerName());
+            return;
+        }
         try {
-            if (nodeContainerId.get() == null) {
-                return;
+            if (seleniumGridData.isRecycleNodes() && nodeContainerPool != null && node.getBrowserVersion() == null) {
+                recycleNodeContainer(node);
+            } else {
+                removeNodeContainer(node);
             }
-            log.info("Stopping and removing node container: {}", nodeContainerId.get());
-            dockerClient.stopContainerCmd(nodeContainerId.get()).exec();
-            dockerClient.removeContainerCmd(nodeContainerId.get()).exec();
             File videoFolder = new File(seleniumGridData.getVideoFolderAbsolutePath());
             if (videoFolder.exists() && Objects.requireNonNull(videoFolder.listFiles()).length > 0) {
                 log.info("Video files available in: {}", videoFolder.getAbsolutePath());
             }
         } catch (Exception e) {
-            log.error("Unable to stop and remove node container: {} due to: {}", nodeContainerId.get(), e.getMessage());
+            log.error("Unable to stop and remove node container: {} due to: {}", node.getContainerId(), e.getMessage());
         }
     }
 
@@ -358,7 +712,7 @@ public class SeleniumGridUtil {
      * @throws RuntimeException if no VNC port is available for current thread
      */
     public String getCurrentVncUrl() {
-        return "http://localhost:" + currentVncPort.get();
+        return getVncUrl(currentNode.get());
     }
 
     /**
@@ -375,7 +729,7 @@ public class SeleniumGridUtil {
      * @return Video filename in format "video_PORT.mp4"
      */
     public String getCurrentVideoFileName() {
-        return VIDEO_CONTAINER_NAME + "_" + currentVncPort.get() + ".mp4";
+        return getVideoName(currentNode.get()) + ".mp4";
     }
 
     /**
@@ -404,13 +758,31 @@ public class SeleniumGridUtil {
      *   <li>Uses localhost and dynamically assigned hub port</li>
      *   <li>Returns standard Selenium Grid endpoint format</li>
      *   <li>URL is valid only after grid has been launched</li>
+     *   <li>In standalone mode, returns the URL of the current thread's standalone container instead,
+     *       so it is valid only after launchNode()</li>
      * </ul>
      *
      * @return URL object pointing to the Selenium Grid hub
      * @throws RuntimeException if hub port is not initialized
      */
-    @SneakyThrows
     public URL getUrl() {
+        return getUrl(currentNode.get());
+    }
+
+    /**
+     * Returns the WebDriver URL of the given node: the node's own container in standalone mode,
+     * the hub otherwise. Use this for nodes returned by launchNodes or launchNodeAsync.
+     *
+     * @param node The node container, may be null outside of standalone mode
+     * @return URL to create WebDriver sessions on the node
+     * @throws IllegalStateException if node is null in standalone mode
+     */
+    @SneakyThrows
+    public URL getUrl(NodeContainer node) {
+        if (seleniumGridData.isStandaloneMode()) {
+            requireNode(node);
+            return new URL("http://" + getNodeAddress(node) + ":" + node.getWebDriverPort());
+        }
         return new URL("http://localhost:" + getHubPort());
     }
 
@@ -420,40 +792,72 @@ public class SeleniumGridUtil {
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Identifies images with dangling filter set to true</li>
-     *   <li>Force removes each dangling image</li>
-     *   <li>Provides detailed logging of removal operations</li>
-     *   <li>Continues processing even if individual removals fail</li>
-     *   <li>Reports total count of successfully removed images</li>
+     *   <li>Removes all unused dangling images with a single image prune call, filtered by the daemon</li>
+     *   <li>Counts the removed images by listing the dangling images before and after the prune</li>
+     *   <li>Reports the number of removed images and the reclaimed disk space in the returned result</li>
      * </ul>
      *
      * <p>This method is safe to call regularly as it only removes unused images.
+     *
+     * @return Aggregated result of the prune
      */
-    public void removeDanglingImages() {
-        int removedCount = 0;
+    public CleanupResult removeDanglingImages() {
+        return prune("dangling images", PruneType.IMAGES,
+                () -> dockerClient.listImagesCmd().withDanglingFilter(true).exec().stream()
+                        .map(Image::getId)
+                        .collect(Collectors.toSet()),
+                pruneCmd -> pruneCmd.withDangling(true));
+    }
 
-        try {
-            // Get only dangling images (images not tagged and not used)
-            List<Image> danglingImages = dockerClient.listImagesCmd()
-                    .withDanglingFilter(true)
-                    .exec();
+    /**
+     * Removes the least recently used Selenium images until all Selenium images fit into the configured disk budget.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Does nothing if no disk budget is configured or the Selenium images already fit into it</li>
+     *   <li>Orders the images by last use through this library, in this or earlier JVMs</li>
+     *   <li>Never removes images used by a container or resolved in this JVM</li>
+     *   <li>Removes only as many images as needed, in parallel through the cleanup engine</li>
+     * </ul>
+     *
+     * @return Aggregated result of the removals
+     */
+    public CleanupResult removeLeastRecentlyUsedImages() {
+        if (seleniumGridData.getImageDiskBudgetBytes() <= 0) {
+            return new CleanupResult("least recently used Selenium images");
+        }
+        return imageGarbageCollector.collect(seleniumGridData.getImageDiskBudgetBytes());
+    }
 
-            // Remove dangling images
-            for (Image image : danglingImages) {
-                try {
-                    String imageId = image.getId();
-                    log.info("Removing dangling image: {} created at {}", imageId, convertEpochToZonedDateTime(image.getCreated()));
-                    dockerClient.removeImageCmd(imageId).withForce(true).exec();
-                    removedCount++;
-                } catch (Exception e) {
-                    log.warn("Could not remove dangling image: {}", e.getMessage());
-                }
+    /**
+     * Runs one daemon-side prune call and reports how many resources it removed and how much disk space it freed.
+     * The prune API only reports the reclaimed space, so the resources matching the prune are listed before and
+     * after it to count the removed ones.
+     *
+     * @param description What is pruned, used in the result and the log
+     * @param pruneType Type of resources to prune
+     * @param candidateLister Lists the IDs of the resources the prune may remove
+     * @param filters Adds the prune filters
+     * @return Aggregated result of the prune
+     */
+    private CleanupResult prune(String description, PruneType pruneType, Supplier<Set<String>> candidateLister,
+                                UnaryOperator<PruneCmd> filters) {
+        CleanupResult result = new CleanupResult(description);
+        long start = System.nanoTime();
+        try {
+            Set<String> candidates = candidateLister.get();
+            if (!candidates.isEmpty()) {
+                PruneResponse response = filters.apply(dockerClient.pruneCmd(pruneType)).exec();
+                candidates.removeAll(candidateLister.get());
+                result.recordPruned(candidates.size(), nvl(response.getSpaceReclaimed(), 0L));
             }
-
-            log.info("Successfully removed {} dangling images", removedCount);
-        } catch (Exception e) {
-            log.error("Error while removing dangling images: {}", e.getMessage(), e);
+        } catch (Exception ex) {
+            log.error("Error while pruning {}: {}", description, ex.getMessage(), ex);
+            result.recordFailed(pruneType.name(), String.valueOf(ex.getMessage()));
         }
+        result.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        log.info("Pruned {}", result);
+        return result;
     }
 
 
@@ -468,16 +872,34 @@ public class SeleniumGridUtil {
      * <p>Implementation details:
      * <ul>
      *   <li>Stores configuration data for later use</li>
+     *   <li>Creates the lifecycle executor, on virtual threads if configured and supported</li>
      *   <li>Initializes Docker client based on operating system</li>
+     *   <li>Creates the image resolver with the configured pull policy and the container state tracker</li>
      *   <li>Configures headless mode and disables video recording if headless</li>
      *   <li>Launches Colima container runtime if specified in configuration</li>
+     *   <li>Starts prefetching the hub, node and video images in the background if configured</li>
      * </ul>
      *
      * @param seleniumGridData Configuration object containing all grid setup parameters
      */
     private SeleniumGridUtil(SeleniumGridData seleniumGridData) {
         this.seleniumGridData = seleniumGridData;
+        this.lifecycleExecutor = DockerExecutors.newCachedExecutor("docknium-lifecycle", seleniumGridData.isUseVirtualThreads());
         initialiseDockerClient();
+        this.containerStateTracker = new ContainerStateTracker(dockerClient);
+        this.portAllocator = new PortAllocator(seleniumGridData.getPortRangeStart(), seleniumGridData.getPortRangeEnd());
+        this.nodePlacement = seleniumGridData.getNodeHosts().isEmpty() ? null : new NodePlacement(seleniumGridData.getNodeHosts());
+        this.admissionController = seleniumGridData.isAdmissionControl()
+                ? new AdmissionController(dockerClient, seleniumGridData.getAdmissionMemoryFraction(), this::getDemandOfRole) : null;
+        this.staleResourceJanitor = new StaleResourceJanitor(this::cleanStaleResources, lifecycleExecutor);
+        this.cleanupEngine = new CleanupEngine(seleniumGridData.getCleanupParallelism(), seleniumGridData.getCleanupOperationTimeout(),
+                seleniumGridData.isUseVirtualThreads());
+        this.imageResolver = new ImageResolver(dockerClient, seleniumGridData.getImagePullPolicy(), seleniumGridData.getImagePullTtl(),
+                seleniumGridData.isOfflineMode() ? new ImageArchiveLoader(dockerClient, new File(seleniumGridData.getImageArchiveFolderAbsolutePath())) : null);
+        this.imageGarbageCollector = new ImageGarbageCollector(dockerClient, cleanupEngine);
+        if (seleniumGridData.getImageDiskBudgetBytes() > 0) {
+            imageResolver.setResolutionListener(imageGarbageCollector::recordUse);
+        }
         this.headless = seleniumGridData.isHeadless();
         if(this.headless) {
             //If headless is expected. record video will be made as false.
@@ -486,6 +908,38 @@ public class SeleniumGridUtil {
         if(seleniumGridData.isColimaToBeLaunched()) {
             launchColima();
         }
+        if(seleniumGridData.isPrefetchImages()) {
+            prefetchImages();
+        }
+    }
+
+    /**
+     * Starts pulling the hub image, the node image of every configured browser and the video image in parallel.
+     * This method returns immediately; launchGrid and launchNode later wait for the in-flight pulls through
+     * the single-flight image resolver instead of pulling one image after another.
+     *
+     * <p>Configured browsers are the default browser, the browsers of the node pool and the prefetch browsers.
+     */
+    private void prefetchImages() {
+        Set<String> imageNames = new LinkedHashSet<>();
+        imageNames.add(getImageCatalog().getHubImageName());
+        Set<Browser> browsers = EnumSet.of(seleniumGridData.getBrowser());
+        if (seleniumGridData.getNodePoolSize() != null) {
+            browsers.addAll(seleniumGridData.getNodePoolSize().keySet());
+        }
+        if (seleniumGridData.getPrefetchBrowsers() != null) {
+            browsers.addAll(seleniumGridData.getPrefetchBrowsers());
+        }
+        browsers.forEach(browser -> imageNames.add(getNodeImageName(browser, null)));
+        if (seleniumGridData.isRecordVideo()) {
+            imageNames.add(getImageCatalog().getVideoImage());
+        }
+        log.info("Prefetching images: {}", imageNames);
+        imageNames.forEach(imageName -> CompletableFuture.runAsync(() -> imageResolver.resolve(imageName), lifecycleExecutor)
+                .exceptionally(ex -> {
+                    log.warn("Prefetch of image {} failed: {}", imageName, ex.getMessage());
+                    return null;
+                }));
     }
 
 
@@ -495,12 +949,15 @@ public class SeleniumGridUtil {
 
     /**
      * Creates a Docker network for Selenium Grid communication.
-     * The network name includes the hub port to ensure uniqueness across multiple grid instances.
+     * The network name includes the hub port (or the run ID with ephemeral ports) to ensure uniqueness across
+     * multiple grid instances.
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Appends hub port to base network name for uniqueness</li>
+     *   <li>Appends hub port to base network name for uniqueness. With ephemeral ports the hub port is only known
+     *       after the hub has started, so the run ID is appended instead</li>
      *   <li>Uses 'nat' driver on Windows, 'bridge' driver on other platforms</li>
+     *   <li>Labels the network with library, run ID, role and owner PID</li>
      *   <li>Provides isolated network environment for grid containers</li>
      *   <li>Handles network creation failures gracefully</li>
      * </ul>
@@ -509,10 +966,11 @@ public class SeleniumGridUtil {
      */
     private void createNetwork() {
         try {
-            networkName += "_" + hubPort;
+            networkName += "_" + getGridSuffix();
             dockerClient.createNetworkCmd()
                     .withName(networkName)
                     .withDriver(isWindows() ? "nat" : "bridge")
+                    .withLabels(ResourceLabels.forRole(ResourceLabels.Role.NETWORK))
                     .exec();
             log.info("Network for Grid is created: {}", networkName);
         } catch (Exception ex) {
@@ -564,17 +1022,14 @@ public class SeleniumGridUtil {
             // Get network details to find connected containers
             var network = dockerClient.inspectNetworkCmd().withNetworkId(networkName).exec();
             if (network.getContainers() != null) {
-                network.getContainers().forEach((containerId, containerInfo) -> {
-                    try {
-                        log.info("Disconnecting container {} from network {}", containerId, networkName);
-                        dockerClient.disconnectFromNetworkCmd()
-                                .withNetworkId(networkName)
-                                .withContainerId(containerId)
-                                .exec();
-                    } catch (Exception e) {
-                        log.error("Failed to disconnect container {} from network: {}", containerId, networkName, e);
-                    }
-                });
+                cleanupEngine.removeAll("containers connected to network " + networkName, network.getContainers().keySet(),
+                        containerId -> containerId, containerId -> {
+                            log.info("Disconnecting container {} from network {}", containerId, networkName);
+                            dockerClient.disconnectFromNetworkCmd()
+                                    .withNetworkId(networkName)
+                                    .withContainerId(containerId)
+                                    .exec();
+                        });
             }
         } catch (Exception e) {
             log.error("Failed to inspect network for disconnection: {}", e.getMessage(), e);
@@ -582,49 +1037,32 @@ public class SeleniumGridUtil {
     }
 
     /**
-     * Removes Docker networks older than 24 hours that match the grid naming pattern.
+     * Removes unused Docker networks older than 24 hours that were created by this library.
      * This helps maintain a clean Docker environment by removing unused networks.
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Calculates 24-hour threshold timestamp</li>
-     *   <li>Lists all Docker networks and filters by creation date</li>
-     *   <li>Filters networks matching the grid naming pattern</li>
-     *   <li>Removes each matching network individually</li>
-     *   <li>Performs final network pruning to clean up unused networks</li>
-     *   <li>Provides comprehensive logging of cleanup operations</li>
+     *   <li>Calculates the stale threshold: older than 24 hours and created before the current run started</li>
+     *   <li>Removes the unused networks of this library older than the threshold with a single network prune call,
+     *       restricted by the daemon through label and until filters, so networks of other tools on the host and
+     *       networks of the current run are left alone</li>
+     *   <li>Counts the removed networks by listing this library's networks before and after the prune</li>
      * </ul>
+     *
+     * @return Aggregated result of the prune
      */
-    private void removeNetworksOlderThan24Hours() {
-        try {
-            // Calculate timestamp for 24 hours ago
-            long twentyFourHoursAgo = Instant.now().minusSeconds(24 * 60 * 60).getEpochSecond();
-
-            // List all networks
-            dockerClient.listNetworksCmd()
-                    .exec()
-                    .stream()
-                    .filter(network -> {
-                        // Filter networks created more than 24 hours ago
-                        Date created = network.getCreated();
-                        return created != null && created.toInstant().getEpochSecond() < twentyFourHoursAgo;
-                    })
-                    .filter(network -> contains(networkName + "_",network.getName()))
-                    .forEach(network -> {
-                        try {
-                            log.info("Removing old network: {} (created on {})", network.getName(), network.getCreated());
-                            dockerClient.removeNetworkCmd(network.getId()).exec();
-                        } catch (Exception e) {
-                            log.error("Failed to remove network: {}", network.getName(), e);
-                        }
-                    });
-
-            // Finally, prune any remaining unused networks
-            dockerClient.pruneCmd(PruneType.NETWORKS).exec();
-            log.info("Network cleanup completed");
-        } catch (Exception ex) {
-            log.error("Error during network cleanup", ex);
-        }
+    private CleanupResult removeNetworksOlderThan24Hours() {
+        long staleBefore = ResourceLabels.staleBefore(Duration.ofHours(24));
+        return prune("networks older than 24 hours", PruneType.NETWORKS,
+                () -> dockerClient.listNetworksCmd()
+                        .withFilter("label", Collections.singletonList(ResourceLabels.libraryFilter()))
+                        .exec().stream()
+                        .filter(network -> network.getCreated() != null && network.getCreated().toInstant().getEpochSecond() < staleBefore)
+                        .map(Network::getId)
+                        .collect(Collectors.toSet()),
+                pruneCmd -> pruneCmd
+                        .withLabelFilter(ResourceLabels.libraryFilter())
+                        .withUntilFilter(String.valueOf(staleBefore)));
     }
 
     // ========================================
@@ -633,12 +1071,15 @@ public class SeleniumGridUtil {
 
     /**
      * Initializes available ports for Selenium Grid components.
-     * Finds three consecutive available ports for hub and event bus communication.
+     * Reserves three ports for hub and event bus communication.
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Uses PortProber to find free ports on the system</li>
+     *   <li>Reserves the ports through the port allocator, so no other thread or JVM gets them</li>
      *   <li>Assigns separate ports for hub, event bus publish, and event bus subscribe</li>
+     *   <li>Keeps the ports of a hub that is already running</li>
+     *   <li>Reserves nothing with ephemeral ports, the ports are read back from the hub container once it has started</li>
+     *   <li>Reserves nothing in standalone mode, which has no hub</li>
      *   <li>Provides detailed logging of assigned ports</li>
      *   <li>Terminates application if port initialization fails</li>
      * </ul>
@@ -646,6 +1087,9 @@ public class SeleniumGridUtil {
      * @throws RuntimeException if no available ports can be found
      */
     private void initPorts() {
+        if (hubContainerId != null || seleniumGridData.isUseEphemeralPorts() || seleniumGridData.isStandaloneMode()) {
+            return;
+        }
         try {
             hubPort = getNextAvailablePort();
             eventBusPublishPort = getNextAvailablePort();
@@ -681,124 +1125,361 @@ public class SeleniumGridUtil {
     }
 
     /**
-     * Finds the next available port on the system.
-     * Uses Selenium's PortProber utility for reliable port detection.
+     * Reserves the next available port of the configured port range.
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Delegates to PortProber.findFreePort() for cross-platform compatibility</li>
-     *   <li>Returns a port number that is currently available</li>
-     *   <li>Port availability is checked at the time of call</li>
+     *   <li>Delegates to the port allocator, which reserves the port for this JVM and across JVMs</li>
+     *   <li>Skips ports another process is listening on</li>
+     *   <li>The port stays reserved until it is released when its container is removed</li>
      * </ul>
      *
      * @return An available port number
+     * @throws IllegalStateException if the port range is exhausted
      */
-    private static int getNextAvailablePort() {
-        return PortProber.findFreePort();
+    private int getNextAvailablePort() {
+        return portAllocator.allocate();
     }
 
-
-    // ========================================
-    // PRIVATE METHODS - CONTAINER CLEANUP
-    // ========================================
+    /**
+     * Returns a port to the port range. Ports assigned by the daemon were never reserved and are not released,
+     * even if they fall into the configured range.
+     *
+     * @param port The port to release, may be null
+     */
+    private void releasePort(Integer port) {
+        if (!seleniumGridData.isUseEphemeralPorts()) {
+            portAllocator.release(port);
+        }
+    }
 
     /**
-     * Removes Docker containers older than 24 hours that are related to Selenium.
-     * This helps maintain a clean Docker environment by removing stale test containers.
+     * Returns the binding of a container port to the given host port. A null host port binds to host port 0,
+     * so the daemon picks a free port when the container starts.
      *
-     * <p>Implementation details:
-     * <ul>
-     *   <li>Calculates 24-hour threshold timestamp</li>
-     *   <li>Lists all containers including stopped ones</li>
-     *   <li>Filters containers by age and Selenium-related image names</li>
-     *   <li>Force removes each matching container</li>
-     *   <li>Provides error handling for individual container removal failures</li>
-     * </ul>
+     * @param hostPort Host port, or null to let the daemon assign one
+     * @return The port binding
      */
-    private void removeContainersOlderThan24Hours() {
-        try {
-            // Calculate timestamp for 24 hours ago
-            long twentyFourHoursAgo = Instant.now().minusSeconds(24 * 60 * 60).getEpochSecond();
+    private static Ports.Binding hostPortBinding(Integer hostPort) {
+        return hostPort == null ? Ports.Binding.empty() : Ports.Binding.bindPort(hostPort);
+    }
 
-            // List all containers
-            List<Container> containers = dockerClient.listContainersCmd()
-                    .withShowAll(true)  // equivalent to docker ps -a
-                    .exec();
+    /**
+     * Reads the host port a container port is published on from container inspect.
+     *
+     * @param containerId ID of the started container
+     * @param containerPort TCP port inside the container
+     * @return The host port
+     * @throws IllegalStateException if the container port is not published
+     */
+    private Integer getHostPort(String containerId, int containerPort) {
+        return getHostPort(dockerClient, containerId, containerPort);
+    }
 
-            // Filter and remove containers that are:
-            // 1. Older than 24 hours AND
-            // 2. Related to Selenium (hub or node)
-            containers.stream()
-                    .filter(container -> container.getCreated() < twentyFourHoursAgo)
-                    .filter(this::isSeleniumContainer)
-                    .forEach(this::forceRemoveContainer);
-        } catch (Exception ex) {
-            log.error("Error during container cleanup", ex);
+    /**
+     * Reads the host port a container port is published on from container inspect on the given Docker host.
+     *
+     * @param client Docker client of the host the container runs on
+     * @param containerId ID of the started container
+     * @param containerPort TCP port inside the container
+     * @return The host port
+     * @throws IllegalStateException if the container port is not published
+     */
+    private static Integer getHostPort(DockerClient client, String containerId, int containerPort) {
+        Map<ExposedPort, Ports.Binding[]> bindings = client.inspectContainerCmd(containerId).exec()
+                .getNetworkSettings().getPorts().getBindings();
+        Ports.Binding[] portBindings = bindings.get(ExposedPort.tcp(containerPort));
+        if (portBindings == null || portBindings.length == 0 || portBindings[0].getHostPortSpec() == null) {
+            throw new IllegalStateException("Port " + containerPort + " of container " + containerId + " is not published");
         }
+        return Integer.valueOf(portBindings[0].getHostPortSpec());
     }
 
     /**
-     * Checks if a container is related to Selenium Grid infrastructure.
-     * Uses image name pattern matching to identify Selenium containers.
-     *
-     * <p>Implementation details:
-     * <ul>
-     *   <li>Extracts image name from container metadata</li>
-     *   <li>Performs case-insensitive search for 'selenium' in image name</li>
-     *   <li>Returns false for null or empty image names</li>
-     * </ul>
+     * Returns the suffix that makes the hub and network names unique: the hub port, or the run ID when
+     * the hub port is only assigned by the daemon once the hub has started.
      *
-     * @param container The container to check
-     * @return true if the container uses a Selenium-related Docker image
+     * @return Name suffix
      */
-    private boolean isSeleniumContainer(Container container) {
-        // Get the image name from the container
-        String imageId = container.getImage();
+    private String getGridSuffix() {
+        return seleniumGridData.isUseEphemeralPorts() ? ResourceLabels.CURRENT_RUN_ID : String.valueOf(hubPort);
+    }
 
-        // Check if it's any Selenium-related container
-        return imageId != null && imageId.toLowerCase().contains("selenium");
+    /**
+     * Checks whether the grid has been launched, with a hub or in standalone mode.
+     *
+     * @return true if launchGrid() has already set up the grid
+     */
+    private boolean isGridLaunched() {
+        return hubContainerId != null || standaloneGridLaunched;
     }
 
     /**
-     * Force removes a Docker container, handling both running and stopped containers.
-     * Uses force removal to ensure containers are removed even if they're running.
+     * Returns the memory and CPUs a container of the given role needs, as used by admission control.
      *
-     * <p>Implementation details:
-     * <ul>
-     *   <li>Uses force flag to remove running containers without stopping first</li>
-     *   <li>Provides detailed logging of removal operations</li>
-     *   <li>Handles individual container removal failures gracefully</li>
-     *   <li>Continues processing other containers even if one fails</li>
-     * </ul>
+     * @param role Role label value of the container
+     * @return Demand of the container, nothing for unknown roles
+     */
+    private AdmissionController.Demand getDemandOfRole(String role) {
+        if (ResourceLabels.Role.HUB.getLabelValue().equals(role)) {
+            return new AdmissionController.Demand(HUB_MEMORY_BYTES, HUB_CPUS);
+        }
+        if (ResourceLabels.Role.NODE.getLabelValue().equals(role)) {
+            return new AdmissionController.Demand(NODE_MEMORY_BYTES, seleniumGridData.getNodeCpuReservation());
+        }
+        if (ResourceLabels.Role.VIDEO.getLabelValue().equals(role)) {
+            return new AdmissionController.Demand(VIDEO_MEMORY_BYTES, VIDEO_CPUS);
+        }
+        return new AdmissionController.Demand(0, 0);
+    }
+
+    /**
+     * Reserves resources for a container on a Docker host, waiting up to the admission timeout.
      *
-     * @param container The container to remove
+     * @param host The host the container runs on, or null for the primary host
+     * @param description What is launched, used in the log
+     * @param demand Memory and CPUs the container needs
+     * @return The reservation, or null if admission control is disabled
+     * @throws IllegalStateException if the launch is rejected or the thread is interrupted while waiting
      */
-    private void forceRemoveContainer(Container container) {
+    private AdmissionController.Reservation admit(DockerHost host, String description, AdmissionController.Demand demand) {
+        if (admissionController == null) {
+            return null;
+        }
+        AdmissionController controller = host == null || host.isPrimary() ? admissionController
+                : hostAdmissionControllers.computeIfAbsent(host, key -> new AdmissionController(getDockerClient(key),
+                        seleniumGridData.getAdmissionMemoryFraction(), this::getDemandOfRole));
+        AdmissionController.Reservation reservation;
         try {
-            dockerClient.removeContainerCmd(container.getId())
-                    .withForce(true)  // Added force removal
-                    .exec();
-            log.info("Removed container: {}", container.getId());
-        } catch (Exception e) {
-            log.error("Failed to remove container: {}", container.getId(), e);
+            reservation = controller.admit(description, demand, seleniumGridData.getAdmissionTimeout());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for resources for " + description, ex);
         }
+        if (reservation == null) {
+            throw new IllegalStateException("Not enough memory or CPUs for " + description);
+        }
+        return reservation;
     }
 
+    /**
+     * Gives back the resources admission control reserved for a removed container.
+     *
+     * @param containerId ID of the removed container
+     */
+    private void releaseAdmission(String containerId) {
+        AdmissionController.Reservation reservation = containerId == null ? null : admittedContainers.remove(containerId);
+        if (reservation != null) {
+            reservation.release();
+        }
+    }
 
-    // ========================================
-    // PRIVATE METHODS - CONTAINER CREATION
-    // ========================================
+    /**
+     * Returns the Docker client of a node host, creating it on first use.
+     *
+     * @param host The node host, or null for the primary host
+     * @return Docker client connected to the host
+     */
+    private DockerClient getDockerClient(DockerHost host) {
+        if (host == null || host.isPrimary()) {
+            return dockerClient;
+        }
+        return hostClients.computeIfAbsent(host, key -> DockerClientBuilder.getInstance(
+                DefaultDockerClientConfig.createDefaultConfigBuilder().withDockerHost(key.getEndpoint()).build()).build());
+    }
 
     /**
-     * Pulls the Selenium Hub Docker image and creates the hub container.
-     * The hub serves as the central coordinator for all Selenium node connections.
+     * Returns the image resolver of a node host, creating it on first use. It follows the same image pull policy
+     * and offline mode as the primary host's resolver.
      *
-     * <p>Implementation details:
-     * <ul>
-     *   <li>Generates unique hub name using the assigned port number</li>
-     *   <li>Pulls latest Selenium Hub image from Docker registry</li>
+     * @param host The node host, or null for the primary host
+     * @return Image resolver of the host
+     */
+    private ImageResolver getImageResolver(DockerHost host) {
+        if (host == null || host.isPrimary()) {
+            return imageResolver;
+        }
+        return hostImageResolvers.computeIfAbsent(host, key -> new ImageResolver(getDockerClient(key),
+                seleniumGridData.getImagePullPolicy(), seleniumGridData.getImagePullTtl(),
+                seleniumGridData.isOfflineMode() ? new ImageArchiveLoader(getDockerClient(key), new File(seleniumGridData.getImageArchiveFolderAbsolutePath())) : null));
+    }
+
+    /**
+     * Checks whether a node runs on another Docker host than the primary host.
+     *
+     * @param node The node container
+     * @return true if the node runs on a remote node host
+     */
+    private static boolean isRemote(NodeContainer node) {
+        return node.getDockerHost() != null && !node.getDockerHost().isPrimary();
+    }
+
+    /**
+     * Checks whether a container failed to start because a host port it publishes is already taken.
+     *
+     * @param ex The failure of the create or start call
+     * @return true if the daemon reported a port conflict
+     */
+    private static boolean isPortConflict(Exception ex) {
+        String message = String.valueOf(ex.getMessage());
+        return message.contains("port is already allocated") || message.contains("address already in use");
+    }
+
+    /**
+     * Returns the address at which the ports published by a node are reachable.
+     *
+     * @param node The node container, may be null
+     * @return Address of the node's host, localhost for nodes on the primary host
+     */
+    private static String getNodeAddress(NodeContainer node) {
+        return node == null || node.getDockerHost() == null ? "localhost" : node.getDockerHost().getReachableAddress();
+    }
+
+    /**
+     * Returns what a node advertises to the hub, to find it in the hub status: its container name, or the address
+     * of its host and its node port for nodes on a remote host.
+     *
+     * @param node The node container
+     * @return Advertised host, or "host:port"
+     */
+    private static String getAdvertisedNodeHost(NodeContainer node) {
+        return node.getNodePort() == null ? node.getContainerName() : getNodeAddress(node) + ":" + node.getNodePort();
+    }
+
+    /**
+     * Returns the address at which nodes on remote hosts reach the hub and event bus ports published on the
+     * primary host: the configured primary host address, or the address of this machine.
+     *
+     * @return Primary host address
+     */
+    private String getPrimaryHostAddress() {
+        return nvl(seleniumGridData.getPrimaryHostAddress(), nvl(safeEval(() -> InetAddress.getLocalHost().getHostAddress()), "localhost"));
+    }
+
+    /**
+     * Returns the environment variables that connect a node on a remote host to the grid through the ports
+     * published on the primary host, and make it advertise an address the hub can reach.
+     *
+     * @param dockerHost The host the node runs on
+     * @param nodePort Port the node listens on and publishes
+     * @return Environment variables overriding those of {@link #getEnvironmentVariablesOfANode(String, Browser)}
+     */
+    private Map<String, String> getRemoteNodeEnvironmentVariables(DockerHost dockerHost, int nodePort) {
+        String primaryHostAddress = getPrimaryHostAddress();
+        Map<String, String> environmentVariables = new HashMap<>();
+        environmentVariables.put("SE_EVENT_BUS_HOST", primaryHostAddress);
+        environmentVariables.put("SE_EVENT_BUS_PUBLISH_PORT", String.valueOf(eventBusPublishPort));
+        environmentVariables.put("SE_EVENT_BUS_SUBSCRIBE_PORT", String.valueOf(eventBusSubscribePort));
+        environmentVariables.put("SE_NODE_GRID_URL", "http://" + primaryHostAddress + ":" + hubPort);
+        environmentVariables.put("SE_NODE_HOST", dockerHost.getReachableAddress());
+        environmentVariables.put("SE_NODE_PORT", String.valueOf(nodePort));
+        return environmentVariables;
+    }
+
+
+    // ========================================
+    // PRIVATE METHODS - CONTAINER CLEANUP
+    // ========================================
+
+    /**
+     * Removes Docker containers older than 24 hours that are related to Selenium.
+     * This helps maintain a clean Docker environment by removing stale test containers.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Calculates the stale threshold: older than 24 hours and created before the current run started</li>
+     *   <li>Removes the stopped containers of this library older than the threshold with a single container prune call,
+     *       restricted by the daemon through label and until filters</li>
+     *   <li>Lists the running containers labelled as created by this library (filtered by the daemon), which prune
+     *       does not touch, and force removes those older than the threshold in parallel through the cleanup engine</li>
+     *   <li>Containers of other tools on the host and of the current run are never touched</li>
+     * </ul>
+     */
+    private void removeContainersOlderThan24Hours() {
+        long staleBefore = ResourceLabels.staleBefore(Duration.ofHours(24));
+        Supplier<Set<String>> staleContainerLister = () -> dockerClient.listContainersCmd()
+                .withShowAll(true)  // equivalent to docker ps -a
+                .withLabelFilter(Collections.singletonList(ResourceLabels.libraryFilter()))
+                .withStatusFilter(Arrays.asList("created", "exited", "dead"))
+                .exec().stream()
+                .filter(container -> container.getCreated() < staleBefore)
+                .map(Container::getId)
+                .collect(Collectors.toSet());
+        prune("stopped containers older than 24 hours", PruneType.CONTAINERS, staleContainerLister,
+                pruneCmd -> pruneCmd
+                        .withLabelFilter(ResourceLabels.libraryFilter())
+                        .withUntilFilter(String.valueOf(staleBefore)));
+        try {
+            // Running containers are not pruned, so the old ones are removed one by one
+            List<String> oldRunningContainerIds = dockerClient.listContainersCmd()
+                    .withLabelFilter(Collections.singletonList(ResourceLabels.libraryFilter()))
+                    .exec().stream()
+                    .filter(container -> container.getCreated() < staleBefore)
+                    .filter(container -> !ResourceLabels.isCurrentRun(container.getLabels()))
+                    .map(Container::getId)
+                    .collect(Collectors.toList());
+            cleanupEngine.removeAll("running containers older than 24 hours", oldRunningContainerIds, containerId -> containerId, this::forceRemoveContainer);
+        } catch (Exception ex) {
+            log.error("Error during container cleanup", ex);
+        }
+    }
+
+    /**
+     * Removes the node and video containers that were created by this library but are still alive according
+     * to the container state table, without listing the containers of the daemon.
+     * The hub container is left to stopAndRemoveHubContainer().
+     */
+    private void removeLeakedContainers() {
+        if (!containerStateTracker.isSubscribed()) {
+            return;
+        }
+        List<String> leakedContainerIds = containerStateTracker.getLiveContainers().stream()
+                .filter(containerId -> !containerId.equals(hubContainerId))
+                .collect(Collectors.toList());
+        leakedContainerIds.forEach(containerId ->
+                log.warn("Removing leaked container: {} ({})", containerId, containerStateTracker.getState(containerId)));
+        cleanupEngine.removeAll("leaked containers", leakedContainerIds, containerId -> containerId, this::forceRemoveContainer);
+    }
+
+    /**
+     * Force removes a Docker container, handling both running and stopped containers.
+     * Uses force removal to ensure containers are removed even if they're running.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Uses force flag to remove running containers without stopping first</li>
+     *   <li>Provides detailed logging of removal operations</li>
+     *   <li>Lets failures propagate, so the cleanup engine can report them per container</li>
+     * </ul>
+     *
+     * @param containerId ID of the container to remove
+     */
+    private void forceRemoveContainer(String containerId) {
+        dockerClient.removeContainerCmd(containerId)
+                .withForce(true)  // Added force removal
+                .exec();
+        containerStateTracker.untrack(containerId);
+        releaseAdmission(containerId);
+        log.info("Removed container: {}", containerId);
+    }
+
+
+    // ========================================
+    // PRIVATE METHODS - CONTAINER CREATION
+    // ========================================
+
+    /**
+     * Pulls the Selenium Hub Docker image and creates the hub container.
+     * The hub serves as the central coordinator for all Selenium node connections.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Generates unique hub name using the assigned port number, or the run ID with ephemeral ports</li>
+     *   <li>Pulls latest Selenium Hub image from Docker registry, as often as the image pull policy requires</li>
      *   <li>Configures port bindings for hub (4444) and event bus (4442, 4443)</li>
-     *   <li>Allocates 2GB memory and shared memory for hub operations</li>
+     *   <li>With ephemeral ports, binds to host port 0 and reads the ports the daemon assigned back from
+     *       container inspect once the hub has started</li>
+     *   <li>Allocates 2GB memory and shared memory for hub operations, after admission control has reserved them</li>
      *   <li>Sets restart policy to retry on failure up to 3 times</li>
      *   <li>Connects hub to the created Docker network</li>
      *   <li>Starts the container and stores container ID for later management</li>
@@ -809,59 +1490,171 @@ public class SeleniumGridUtil {
     @SneakyThrows
     private void pullAndCreateHubContainer() {
         try {
-            HUB_NAME = "selenium-hub-" + hubPort;
+            HUB_NAME = "selenium-hub-" + getGridSuffix();
 
-            //Pulling the docker image before creating container
-            log.info("Pulling Hub image: {}", SELENIUM_HUB_IMAGE_NAME);
-            dockerClient.pullImageCmd(SELENIUM_HUB_IMAGE_NAME)
-                    .exec(new PullImageResultCallback())
-                    .awaitCompletion();
+            //Pulling the docker image before creating container (skipped if the image resolver has it cached)
+            String hubImageName = getImageCatalog().getHubImageName();
+            log.info("Resolving Hub image: {}", hubImageName);
+            imageResolver.resolve(hubImageName);
 
             // Port bindings for the hub
             Ports portBindings = new Ports();
             portBindings.bind(ExposedPort.tcp(4444),
-                    Ports.Binding.bindPort(hubPort));
+                    hostPortBinding(hubPort));
             portBindings.bind(ExposedPort.tcp(4442),
-                    Ports.Binding.bindPort(eventBusPublishPort));
+                    hostPortBinding(eventBusPublishPort));
             portBindings.bind(ExposedPort.tcp(4443),
-                    Ports.Binding.bindPort(eventBusSubscribePort));
+                    hostPortBinding(eventBusSubscribePort));
+
+            AdmissionController.Reservation reservation = admit(null, "hub container", getDemandOfRole(ResourceLabels.Role.HUB.getLabelValue()));
 
             // Create hub container
             log.info("Starting Hub container...");
             CreateContainerResponse hubContainer = dockerClient
-                    .createContainerCmd(SELENIUM_HUB_IMAGE_NAME)
+                    .createContainerCmd(hubImageName)
                     .withName(HUB_NAME)
+                    .withLabels(ResourceLabels.forRole(ResourceLabels.Role.HUB))
                     .withExposedPorts(
                             ExposedPort.tcp(4444),
                             ExposedPort.tcp(4442),
                             ExposedPort.tcp(4443)
                     )
                     .withHostConfig(HostConfig.newHostConfig()
-                            .withMemory(2147483648L)
-                            .withShmSize(2147483648L)
+                            .withMemory(HUB_MEMORY_BYTES)
+                            .withShmSize(HUB_MEMORY_BYTES)
                             .withRestartPolicy(RestartPolicy.onFailureRestart(3))
                             .withPortBindings(portBindings)
                             .withNetworkMode(networkName))
                     .exec();
 
             hubContainerId = hubContainer.getId();
+            if (reservation != null) {
+                admittedContainers.put(hubContainerId, reservation);
+            }
+            containerStateTracker.track(hubContainerId);
             dockerClient.startContainerCmd(hubContainerId).exec();
+            if (seleniumGridData.isUseEphemeralPorts()) {
+                hubPort = getHostPort(hubContainerId, 4444);
+                eventBusPublishPort = getHostPort(hubContainerId, 4442);
+                eventBusSubscribePort = getHostPort(hubContainerId, 4443);
+                log.info("Hub Port: {}, Event Bus Ports: {}, {} (assigned by the daemon)", hubPort, eventBusPublishPort, eventBusSubscribePort);
+            }
             log.info("Hub container started successfully with ID: {}", hubContainerId);
         } catch (Exception ex) {
             log.error("Failed to create and start hub container", ex);
         }
     }
 
+    /**
+     * Waits until the hub container answers its status endpoint and records the time it took.
+     * A hub that does not become ready within the configured timeout is logged, not treated as fatal,
+     * in line with the other container start-up failures.
+     */
+    private void awaitHubReadiness() {
+        if (hubContainerId == null) {
+            return;
+        }
+        hubTimeToReady = gridStatusClient.awaitHubReady(getUrl(null), seleniumGridData.getReadinessPollInitialBackoff(),
+                seleniumGridData.getReadinessPollMaxBackoff(), seleniumGridData.getHubReadinessTimeout());
+        if (hubTimeToReady == null) {
+            log.error("Hub did not become ready within {}", seleniumGridData.getHubReadinessTimeout());
+        } else {
+            log.info("Hub ready in {} ms", hubTimeToReady.toMillis());
+        }
+    }
+
+    /**
+     * Launches the node-docker container of the dynamic grid and waits until it has registered with the hub.
+     * The grid then starts a standalone browser container for every new session and removes it when
+     * the session ends.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Maps every browser of dynamicGridBrowsers (or the configured browser) to its standalone image</li>
+     *   <li>Resolves the node-docker, standalone and video images up front, so the first sessions do not wait
+     *       for pulls and the image pull policy and offline mode apply to them</li>
+     *   <li>Writes the node-docker configuration to a temp file and copies it into the created container before
+     *       it starts. A bind mount from the temp directory would be empty where the daemon runs in a VM that does
+     *       not share it, as with Colima or Docker Desktop on macOS</li>
+     *   <li>Mounts the Docker socket, so the node can start browser containers</li>
+     *   <li>Mounts the video folder as the node's assets folder, where session videos are stored when
+     *       recording is enabled</li>
+     * </ul>
+     */
+    private void launchDynamicGridNode() {
+        try {
+            Set<Browser> browsers = seleniumGridData.getDynamicGridBrowsers().isEmpty()
+                    ? EnumSet.of(seleniumGridData.getBrowser()) : seleniumGridData.getDynamicGridBrowsers();
+            Map<Browser, String> browserImages = new EnumMap<>(Browser.class);
+            browsers.forEach(browser -> browserImages.put(browser, getImageCatalog().getStandaloneImageName(browser, null)));
+            String videoImage = seleniumGridData.isRecordVideo() ? getImageCatalog().getVideoImage() : null;
+
+            List<String> images = new ArrayList<>(browserImages.values());
+            images.add(getImageCatalog().getNodeDockerImageName());
+            if (videoImage != null) {
+                images.add(videoImage);
+            }
+            images.forEach(image -> {
+                log.info("Resolving dynamic grid image: {}", image);
+                imageResolver.resolve(image);
+            });
+
+            File configFile = NodeDockerConfig.write(NodeDockerConfig.render(browserImages,
+                    seleniumGridData.getDynamicGridMaxSessions(),
+                    (int) seleniumGridData.getDynamicGridSessionTimeout().getSeconds(), videoImage));
+            String nodeName = "node-docker-" + getGridSuffix();
+            Map<String, String> environmentVariables = new HashMap<>();
+            environmentVariables.put("SE_EVENT_BUS_HOST", HUB_NAME);
+            environmentVariables.put("SE_EVENT_BUS_PUBLISH_PORT", "4442");
+            environmentVariables.put("SE_EVENT_BUS_SUBSCRIBE_PORT", "4443");
+            environmentVariables.put("SE_NODE_HOST", nodeName);
+
+            log.info("Starting dynamic grid node for browsers: {}", browserImages.keySet());
+            CreateContainerResponse nodeContainer = dockerClient
+                    .createContainerCmd(getImageCatalog().getNodeDockerImageName())
+                    .withName(nodeName)
+                    .withLabels(ResourceLabels.forRole(ResourceLabels.Role.NODE))
+                    .withEnv(environmentVariables.entrySet().stream()
+                            .map(e -> e.getKey() + "=" + e.getValue())
+                            .toArray(String[]::new))
+                    .withHostConfig(HostConfig.newHostConfig()
+                            .withLinks(new Link(HUB_NAME, "selenium-hub"))
+                            .withRestartPolicy(RestartPolicy.onFailureRestart(3))
+                            .withNetworkMode(networkName)
+                            .withBinds(
+                                    new Bind(seleniumGridData.getDockerSocketPath(), new Volume("/var/run/docker.sock")),
+                                    new Bind(seleniumGridData.getVideoFolderAbsolutePath(), new Volume(NodeDockerConfig.ASSETS_PATH))))
+                    .exec();
+            containerStateTracker.track(nodeContainer.getId());
+            NodeContainer node = NodeContainer.builder()
+                    .browser(seleniumGridData.getBrowser())
+                    .containerId(nodeContainer.getId())
+                    .containerName(nodeName)
+                    .build();
+            dockerClient.copyArchiveToContainerCmd(nodeContainer.getId())
+                    .withHostResource(configFile.getAbsolutePath())
+                    .withRemotePath(NodeDockerConfig.CONFIG_FOLDER)
+                    .exec();
+            dockerClient.startContainerCmd(nodeContainer.getId()).exec();
+            dynamicGridNode = awaitNodeRegistration(node);
+        } catch (Exception ex) {
+            log.error("Failed to create and start the dynamic grid node container", ex);
+        }
+    }
+
     /**
      * Pulls the appropriate Selenium Node Docker image and creates a node container for the specified browser.
      * Each node container provides an isolated browser environment with VNC access and download capabilities.
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Assigns unique VNC port for remote access to the browser session</li>
+     *   <li>Assigns unique VNC port for remote access to the browser session. With ephemeral ports the daemon
+     *       assigns it and it is read back from container inspect once the node has started</li>
      *   <li>Determines correct browser image name based on browser type and processor architecture</li>
      *   <li>Pulls browser-specific Selenium node image from Docker registry</li>
      *   <li>Allocates 2GB memory and shared memory for browser operations</li>
+     *   <li>Waits until admission control has reserved memory and CPUs for the node (and its video container)
+     *       on its host, so a burst of launches queues up instead of overcommitting the daemon</li>
      *   <li>Configures environment variables for grid communication and display settings</li>
      *   <li>Sets up VNC port binding for remote browser access</li>
      *   <li>Creates volume binding for file downloads between container and host</li>
@@ -870,78 +1663,582 @@ public class SeleniumGridUtil {
      * </ul>
      *
      * @param browser The browser type for which to create the node container
-     * @throws RuntimeException if image pull or container creation fails
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @return Handle to the started node container, or null if the node could not be created
      */
-    private void pullAndCreateNodeContainer(Browser browser) {
+    private NodeContainer pullAndCreateNodeContainer(Browser browser, String browserVersion) {
         try {
             //Pulling the docker image before creating container
-            log.info("Pulling Node image for browser: {}", browser);
-            currentVncPort.set(getNextAvailablePort());
-            String browserName = getBrowserName(browser);
-            SELENIUM_NODE_IMAGE_NAME = SELENIUM_NODE_IMAGE_NAME.replace("<BROWSER>", browserName);
+            pullNodeImage(browser, browserVersion);
+        } catch (Exception ex) {
+            log.error("Failed to pull node image for browser: {}", browser, ex);
+            return null;
+        }
+        return createNodeContainer(browser, browserVersion);
+    }
 
-            dockerClient.pullImageCmd(SELENIUM_NODE_IMAGE_NAME)
-                    .exec(new PullImageResultCallback())
-                    .awaitCompletion();
+    /**
+     * Pulls the Selenium Node Docker image of the specified browser, unless the image resolver has it cached.
+     *
+     * @param browser The browser type whose node image is pulled
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     */
+    private void pullNodeImage(Browser browser, String browserVersion) {
+        log.info("Resolving Node image for browser: {} {}", browser, nvl(browserVersion, ""));
+        imageResolver.resolve(getNodeImageName(browser, browserVersion));
+    }
+
+    /**
+     * Creates and starts a node container for the specified browser from an already pulled image.
+     * In standalone mode the container is a standalone container that also publishes its WebDriver port (4444)
+     * and runs on the default bridge network, as there is no hub to link to.
+     *
+     * <p>When node hosts are configured, the node is placed on the host with the most free capacity. A node on
+     * another host than the primary cannot join the grid network, so it runs on that host's default bridge network,
+     * reaches the hub and event bus through the ports published on the primary host, and advertises its host's
+     * address and a published node port to the hub.
+     *
+     * <p>The port allocator only sees the ports of this machine, so on a remote host the VNC and WebDriver ports
+     * are assigned by that host's daemon and read back through its client. The node port must be the same inside
+     * and outside the container, so it still comes from the port range, and the remote daemon's bind is the check:
+     * a node port that is taken on the remote host is retried with the next one.
+     *
+     * @param browser The browser type for which to create the node container
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @return Handle to the started node container, or null if the node could not be created
+     */
+    private NodeContainer createNodeContainer(Browser browser, String browserVersion) {
+        return createNodeContainer(browser, browserVersion, 1);
+    }
+
+    /**
+     * Creates and starts a node container, retrying with another node port when the port is taken on a remote host.
+     *
+     * @param browser The browser type for which to create the node container
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @param attempt Number of this attempt, starting at 1
+     * @return Handle to the started node container, or null if the node could not be created
+     */
+    private NodeContainer createNodeContainer(Browser browser, String browserVersion, int attempt) {
+        Integer vncPort = null;
+        Integer webDriverPort = null;
+        Integer nodePort = null;
+        DockerHost dockerHost = null;
+        DockerClient hostClient = dockerClient;
+        String containerId = null;
+        AdmissionController.Reservation reservation = null;
+        boolean standalone = seleniumGridData.isStandaloneMode();
+        try {
+            if (nodePlacement != null) {
+                dockerHost = nodePlacement.place();
+                if (dockerHost == null) {
+                    throw new IllegalStateException("Every node host is at its capacity");
+                }
+            }
+            boolean remote = dockerHost != null && !dockerHost.isPrimary();
+            hostClient = getDockerClient(dockerHost);
+            AdmissionController.Demand demand = getDemandOfRole(ResourceLabels.Role.NODE.getLabelValue());
+            if (seleniumGridData.isRecordVideo()) {
+                demand = demand.plus(getDemandOfRole(ResourceLabels.Role.VIDEO.getLabelValue()));
+            }
+            reservation = admit(dockerHost, "node container for " + getBrowserName(browser), demand);
+            if (remote && !standalone) {
+                // The node listens on the same port it publishes, so the address it advertises is reachable as is
+                nodePort = portAllocator.allocate();
+            }
+            boolean daemonAssignedPorts = seleniumGridData.isUseEphemeralPorts() || remote;
+            vncPort = daemonAssignedPorts ? null : getNextAvailablePort();
+            if (standalone && !daemonAssignedPorts) {
+                webDriverPort = getNextAvailablePort();
+            }
+            String browserName = getBrowserName(browser);
+            String nodeImageName = getNodeImageName(browser, browserVersion);
+            if (remote) {
+                getImageResolver(dockerHost).resolve(nodeImageName);
+            }
 
             //Allotting 2 GB for each node.
-            Long memoryAndShmSize = 2L * 1024 * 1024 * 1024;
+            Long memoryAndShmSize = NODE_MEMORY_BYTES;
+
+            String uniqueNodeName = getUniqueNodeName(browser, vncPort);
 
             // Environment variables for the node
-            Map<String, String> environmentVariables = getEnvironmentVariablesOfANode();
+            Map<String, String> environmentVariables = getEnvironmentVariablesOfANode(uniqueNodeName, browser);
+            if (nodePort != null) {
+                environmentVariables.putAll(getRemoteNodeEnvironmentVariables(dockerHost, nodePort));
+            }
 
             // Port bindings for the node
+            List<ExposedPort> exposedPorts = new ArrayList<>();
             Ports nodePortBindings = new Ports();
+            exposedPorts.add(ExposedPort.tcp(7900));
             nodePortBindings.bind(ExposedPort.tcp(7900),
-                    Ports.Binding.bindPort(currentVncPort.get()));
+                    hostPortBinding(vncPort));
+            if (standalone) {
+                exposedPorts.add(ExposedPort.tcp(4444));
+                nodePortBindings.bind(ExposedPort.tcp(4444),
+                        hostPortBinding(webDriverPort));
+            }
+            if (nodePort != null) {
+                exposedPorts.add(ExposedPort.tcp(nodePort));
+                nodePortBindings.bind(ExposedPort.tcp(nodePort),
+                        Ports.Binding.bindPort(nodePort));
+            }
+            HostConfig hostConfig = HostConfig.newHostConfig()
+                    .withPortBindings(nodePortBindings)
+                    .withRestartPolicy(RestartPolicy.onFailureRestart(3))
+                    .withMemory(memoryAndShmSize) // 2GB / 4GB
+                    .withShmSize(memoryAndShmSize)// 2GB / 4GB shm_size
+                    .withBinds(new Bind(seleniumGridData.getDownloadFolderAbsolutePath(), new Volume(DOWNLOAD_PATH)));
+            if (!standalone && !remote) {
+                hostConfig.withLinks(new Link(HUB_NAME, "selenium-hub"))
+                        .withNetworkMode(networkName);
+            }
 
             // Create node container
-            log.info("Starting Node container for browser: {}", browserName);
-
-            String uniqueNodeName = getUniqueNodeName();
+            log.info("Starting Node container for browser: {} on {}", browserName, dockerHost == null ? "primary" : dockerHost);
 
-            CreateContainerResponse nodeContainer = dockerClient
-                    .createContainerCmd(SELENIUM_NODE_IMAGE_NAME)
+            CreateContainerResponse nodeContainer = hostClient
+                    .createContainerCmd(nodeImageName)
                     .withName(uniqueNodeName)
-                    .withExposedPorts(ExposedPort.tcp(7900))
+                    .withLabels(ResourceLabels.forRole(ResourceLabels.Role.NODE))
+                    .withExposedPorts(exposedPorts)
                     .withEnv(environmentVariables.entrySet().stream()
                             .map(e -> e.getKey() + "=" + e.getValue())
                             .toArray(String[]::new))
-                    .withHostConfig(HostConfig.newHostConfig()
-                            .withPortBindings(nodePortBindings)
-                            .withLinks(new Link(HUB_NAME, "selenium-hub"))
-                            .withRestartPolicy(RestartPolicy.onFailureRestart(3))
-                            .withMemory(memoryAndShmSize) // 2GB / 4GB
-                            .withShmSize(memoryAndShmSize)// 2GB / 4GB shm_size
-                            .withNetworkMode(networkName)
-                            .withBinds(new Bind(seleniumGridData.getDownloadFolderAbsolutePath(), new Volume(DOWNLOAD_PATH))))
+                    .withHostConfig(hostConfig)
                     .exec();
+            containerId = nodeContainer.getId();
+            if (!remote) {
+                // The events stream is only followed on the primary host
+                containerStateTracker.track(nodeContainer.getId());
+            }
+            if (reservation != null) {
+                admittedContainers.put(nodeContainer.getId(), reservation);
+            }
 
-            nodeContainerId.set(nodeContainer.getId());
-            dockerClient.startContainerCmd(nodeContainer.getId()).exec();
-            String vncInfoMsg = "Please use " + getCurrentVncUrl() + " to check VNC";
+            NodeContainer node = NodeContainer.builder()
+                    .browser(browser)
+                    .browserVersion(browserVersion)
+                    .containerId(nodeContainer.getId())
+                    .containerName(uniqueNodeName)
+                    .vncPort(vncPort)
+                    .webDriverPort(webDriverPort)
+                    .dockerHost(dockerHost)
+                    .nodePort(nodePort)
+                    .build();
+            hostClient.startContainerCmd(nodeContainer.getId()).exec();
+            if (vncPort == null) {
+                node.setVncPort(getHostPort(hostClient, nodeContainer.getId(), 7900));
+            }
+            if (standalone && webDriverPort == null) {
+                node.setWebDriverPort(getHostPort(hostClient, nodeContainer.getId(), 4444));
+            }
+            String vncInfoMsg = "Please use " + getVncUrl(node) + " to check VNC";
             log.info("Node container started successfully. {}", vncInfoMsg);
+            return node;
+        } catch (Exception ex) {
+            boolean retry = nodePort != null && attempt < REMOTE_NODE_PORT_ATTEMPTS && isPortConflict(ex);
+            if (retry) {
+                log.warn("Node port {} is taken on {}. Retrying with another port", nodePort, dockerHost);
+            } else {
+                log.error("Failed to create and start node container", ex);
+            }
+            if (containerId != null) {
+                String createdContainerId = containerId;
+                DockerClient createdOn = hostClient;
+                safeEval(() -> createdOn.removeContainerCmd(createdContainerId).withForce(true).exec());
+                containerStateTracker.untrack(containerId);
+            }
+            releasePort(vncPort);
+            releasePort(webDriverPort);
+            portAllocator.release(nodePort);
+            if (nodePlacement != null) {
+                nodePlacement.release(dockerHost);
+            }
+            if (reservation != null) {
+                admittedContainers.values().remove(reservation);
+                reservation.release();
+            }
+            return retry ? createNodeContainer(browser, browserVersion, attempt + 1) : null;
+        }
+    }
+
+    /**
+     * Provides a node container for the specified browser, including its video container if recording is enabled.
+     * If the browser's nodes run several sessions, a free slot on a running node is taken first, then a free slot
+     * on a node another thread is provisioning, in which case this method waits for that node. Otherwise a warm
+     * node is leased from the node pool when available, or a new node container is created and this method waits
+     * until it has registered with the hub and has a free slot.
+     *
+     * @param browser The browser type for which to provide the node
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @return Handle to the node container, or null if the node could not be created
+     */
+    private NodeContainer provisionNode(Browser browser, String browserVersion) {
+        if(!isGridLaunched()) {
+            launchGrid();
+        }
+        if (seleniumGridData.isDynamicGrid() && !seleniumGridData.isStandaloneMode()) {
+            log.info("Dynamic grid: the grid starts a browser container per session, no node is launched");
+            return null;
+        }
+        NodeSlotScheduler.PendingNode pendingNode = null;
+        if (browserVersion == null && getMaxSessions(browser) > 1) {
+            while (pendingNode == null) {
+                NodeSlotScheduler.Slot slot = nodeSlotScheduler.reserve(browser, getMaxSessions(browser));
+                if (slot.node != null) {
+                    return slot.node;
+                }
+                if (slot.provisioner) {
+                    pendingNode = slot.pendingNode;
+                } else {
+                    log.info("Waiting for a {} node another thread is provisioning", browser);
+                    NodeContainer sharedNode = slot.pendingNode.await();
+                    if (sharedNode != null) {
+                        return sharedNode;
+                    }
+                }
+            }
+        }
+        NodeContainer node = null;
+        try {
+            node = nodeContainerPool == null || browserVersion != null ? null : nodeContainerPool.lease(browser);
+            if (node != null) {
+                log.info("Leased warm node container {} for browser: {}. Please use {} to check VNC",
+                        node.getContainerName(), browser, getVncUrl(node));
+            } else {
+                node = awaitNodeRegistration(pullAndCreateNodeContainer(browser, browserVersion));
+            }
+            if(node != null && seleniumGridData.isRecordVideo()) {
+                pullAndCreateVideoContainer(node);
+            }
+        } finally {
+            if (pendingNode != null) {
+                // Also runs on failure, so threads waiting for the node are released
+                nodeSlotScheduler.complete(pendingNode, node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the maximum number of concurrent sessions of a node of the given browser.
+     *
+     * @param browser The browser of the node
+     * @return Configured maximum sessions, at least 1
+     */
+    private int getMaxSessions(Browser browser) {
+        return Math.max(1, nvl(seleniumGridData.getMaxSessionsPerNode().get(browser), 1));
+    }
+
+    /**
+     * Creates a node container for the warm pool and waits until it has registered with the hub.
+     * A node that does not register within the configured timeout is removed again.
+     *
+     * @param browser The browser type for which to create the node container
+     * @return Handle to the registered node container, or null if the node could not be made ready
+     */
+    private NodeContainer createRegisteredNodeContainer(Browser browser) {
+        return awaitNodeRegistration(pullAndCreateNodeContainer(browser, null));
+    }
+
+    /**
+     * Creates a node container from an already pulled image for launchNodes, waits for its registration
+     * and attaches a video container if recording is enabled.
+     *
+     * @param browser The browser type for which to create the node container
+     * @return Handle to the registered node container, or null if the node could not be made ready
+     */
+    private NodeContainer createBulkNodeContainer(Browser browser) {
+        NodeContainer node = awaitNodeRegistration(createNodeContainer(browser, null));
+        if (node != null && seleniumGridData.isRecordVideo()) {
+            createVideoContainer(node);
+        }
+        return node;
+    }
+
+    /**
+     * Waits until the given node has registered with the hub and has a free slot, and records its grid node ID.
+     * A node that does not become ready within the configured timeout is removed again.
+     *
+     * @param node The started node container, may be null
+     * @return The registered node container, or null if the node could not be made ready
+     */
+    private NodeContainer awaitNodeRegistration(NodeContainer node) {
+        if (node == null) {
+            return null;
+        }
+        String nodeId = gridStatusClient.awaitNodeReady(getUrl(node), getAdvertisedNodeHost(node),
+                () -> hasContainerExited(node.getContainerId()),
+                seleniumGridData.getReadinessPollInitialBackoff(), seleniumGridData.getReadinessPollMaxBackoff(),
+                seleniumGridData.getNodeRegistrationTimeout());
+        if (nodeId == null && hasContainerExited(node.getContainerId())) {
+            log.error("Node container {} exited before registering with the hub", node.getContainerName());
+            removeNodeContainer(node);
+            return null;
+        }
+        if (nodeId == null) {
+            log.error("Node {} did not register with the hub within {}", node.getContainerName(),
+                    seleniumGridData.getNodeRegistrationTimeout());
+            removeNodeContainer(node);
+            return null;
+        }
+        node.setNodeId(nodeId);
+        return node;
+    }
+
+    /**
+     * Stops and removes a node container.
+     *
+     * @param node The node container to remove
+     */
+    private void removeNodeContainer(NodeContainer node) {
+        log.info("Stopping and removing node container: {}", node.getContainerId());
+        DockerClient hostClient = getDockerClient(node.getDockerHost());
+        hostClient.stopContainerCmd(node.getContainerId()).exec();
+        hostClient.removeContainerCmd(node.getContainerId()).exec();
+        containerStateTracker.untrack(node.getContainerId());
+        if (!isRemote(node)) {
+            // Ports of remote nodes are assigned by their daemon and were never reserved here
+            releasePort(node.getVncPort());
+            releasePort(node.getWebDriverPort());
+        }
+        portAllocator.release(node.getNodePort());
+        if (nodePlacement != null) {
+            nodePlacement.release(node.getDockerHost());
+        }
+        releaseAdmission(node.getContainerId());
+    }
+
+    /**
+     * Cleans a node container after a test and returns it to the node pool for reuse.
+     * The node is removed instead once it reached the configured reuse limit or fails its health check.
+     *
+     * <p>Implementation details:
+     * <ul>
+     *   <li>Stops and removes the node's video container so the recording is finalised</li>
+     *   <li>Quits sessions the test left behind on the node through the hub</li>
+     *   <li>Clears the download folder and leftover browser profiles inside the container</li>
+     *   <li>Checks that the container is running and still registered with the hub</li>
+     * </ul>
+     *
+     * <p>Note: The download folder is a bind mount shared by all nodes, so it is cleared for every node.
+     *
+     * @param node The node container used by the test that just finished
+     */
+    private void recycleNodeContainer(NodeContainer node) {
+        removeVideoContainer(node);
+        quitLeftoverSessions(node);
+        clearNodeState(node);
+        if (node.getReuseCount() >= seleniumGridData.getMaxNodeReuses()) {
+            log.info("Node {} reached its reuse limit of {}. Recreating it", node.getContainerName(), seleniumGridData.getMaxNodeReuses());
+            removeNodeContainer(node);
+            return;
+        }
+        if (!isNodeHealthy(node)) {
+            log.warn("Node {} failed its health check. Recreating it", node.getContainerName());
+            removeNodeContainer(node);
+            return;
+        }
+        node.setReuseCount(node.getReuseCount() + 1);
+        nodeContainerPool.release(node);
+        log.info("Node {} recycled for reuse ({} of {})", node.getContainerName(), node.getReuseCount(), seleniumGridData.getMaxNodeReuses());
+    }
+
+    /**
+     * Quits every session that is still running on the given node.
+     *
+     * @param node The node container
+     */
+    private void quitLeftoverSessions(NodeContainer node) {
+        List<String> sessionIds = gridStatusClient.getSessionIds(gridStatusClient.fetchStatus(getUrl(node)), getAdvertisedNodeHost(node));
+        for (String sessionId : sessionIds) {
+            log.info("Quitting leftover session {} on node {}", sessionId, node.getContainerName());
+            gridStatusClient.deleteSession(getUrl(node), sessionId);
+        }
+    }
+
+    /**
+     * Clears downloads and leftover browser profiles inside the given node container.
+     *
+     * @param node The node container
+     */
+    private void clearNodeState(NodeContainer node) {
+        try {
+            DockerClient hostClient = getDockerClient(node.getDockerHost());
+            String execId = hostClient.execCreateCmd(node.getContainerId())
+                    .withUser("root")
+                    .withCmd("sh", "-c", NODE_STATE_CLEANUP_COMMAND)
+                    .exec()
+                    .getId();
+            hostClient.execStartCmd(execId)
+                    .exec(new ResultCallback.Adapter<Frame>())
+                    .awaitCompletion(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         } catch (Exception ex) {
-            log.error("Failed to create and start node container", ex);
+            log.warn("Unable to clear state of node {}: {}", node.getContainerName(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the given node container is running and registered with the hub.
+     *
+     * @param node The node container
+     * @return true if the node can take another session
+     */
+    private boolean isNodeHealthy(NodeContainer node) {
+        return isContainerRunning(node) && gridStatusClient.isNodeRegistered(getUrl(node), getAdvertisedNodeHost(node));
+    }
+
+    /**
+     * Checks whether a container is running. The state table fed by the Docker events stream is used when
+     * it knows the container, the daemon is only asked when events are not being tracked.
+     * Containers on remote node hosts are not in the state table, so their daemon is always asked.
+     *
+     * @param node The node container
+     * @return true if the container is running
+     */
+    private boolean isContainerRunning(NodeContainer node) {
+        ContainerStateTracker.State state = isRemote(node) ? null : containerStateTracker.getState(node.getContainerId());
+        if (state != null && containerStateTracker.isSubscribed()) {
+            return state.isRunning();
         }
+        return Boolean.TRUE.equals(safeEval(() -> getDockerClient(node.getDockerHost())
+                .inspectContainerCmd(node.getContainerId()).exec().getState().getRunning()));
+    }
+
+    /**
+     * Checks whether a container is known to have stopped for good or been removed, according to the Docker
+     * events stream. Node containers are restarted on failure, so a container that died is only given up once
+     * the daemon no longer restarts it; only then is it inspected.
+     *
+     * @param containerId ID of the container
+     * @return true if the container was destroyed, or died and is neither running nor being restarted
+     */
+    private boolean hasContainerExited(String containerId) {
+        ContainerStateTracker.State state = containerStateTracker.getState(containerId);
+        if (state == ContainerStateTracker.State.DESTROYED) {
+            return true;
+        }
+        if (state != ContainerStateTracker.State.DIED) {
+            return false;
+        }
+        InspectContainerResponse.ContainerState containerState = safeEval(() -> dockerClient.inspectContainerCmd(containerId).exec().getState());
+        if (containerState == null) {
+            // Inspect fails once the container is gone
+            return true;
+        }
+        return !Boolean.TRUE.equals(containerState.getRestarting()) && !Boolean.TRUE.equals(containerState.getRunning());
+    }
+
+    /**
+     * Stops and removes the video container of the given node, if it has one.
+     * Stopping the video container lets it finalise the recording.
+     *
+     * @param node The node container
+     */
+    private void removeVideoContainer(NodeContainer node) {
+        if (node.getVideoContainerId() == null) {
+            return;
+        }
+        try {
+            DockerClient hostClient = getDockerClient(node.getDockerHost());
+            hostClient.stopContainerCmd(node.getVideoContainerId()).exec();
+            hostClient.removeContainerCmd(node.getVideoContainerId()).exec();
+            containerStateTracker.untrack(node.getVideoContainerId());
+        } catch (Exception ex) {
+            log.warn("Unable to stop and remove video container {}: {}", node.getVideoContainerId(), ex.getMessage());
+        }
+        node.setVideoContainerId(null);
+    }
+
+    /**
+     * Starts the node pool if a pool size is configured for at least one browser, or if nodes are recycled.
+     * The pool fills itself in the background, so this method returns immediately.
+     */
+    private void startNodeContainerPool() {
+        Map<Browser, Integer> poolSizes = seleniumGridData.getNodePoolSize();
+        boolean poolSizeConfigured = poolSizes != null && poolSizes.values().stream().anyMatch(size -> size != null && size > 0);
+        if (!poolSizeConfigured && !seleniumGridData.isRecycleNodes()) {
+            return;
+        }
+        if (poolSizes == null) {
+            poolSizes = new EnumMap<>(Browser.class);
+        }
+        log.info("Starting warm node pool: {}", poolSizes);
+        nodeContainerPool = new NodeContainerPool(poolSizes, DockerExecutors.newFixedExecutor("docknium-pool-refiller",
+                seleniumGridData.getNodePoolRefillThreads(), seleniumGridData.isUseVirtualThreads()),
+                this::createRegisteredNodeContainer, this::removeNodeContainer);
+        nodeContainerPool.fill();
     }
 
     /**
      * Generates a unique name for the node container.
      * The name includes browser type and VNC port to ensure uniqueness across multiple nodes.
+     * With ephemeral ports the VNC port is not known before the container starts, so the run ID and a
+     * sequence number are used instead.
      *
      * <p>Implementation details:
      * <ul>
      *   <li>Combines "node" prefix with browser name and VNC port</li>
-     *   <li>Uses current thread's browser configuration</li>
+     *   <li>Uses the browser the node is created for</li>
      *   <li>Ensures uniqueness through VNC port inclusion</li>
-     *   <li>Format: "node-{browser}-{vncPort}"</li>
+     *   <li>Format: "node-{browser}-{vncPort}", or "node-{browser}-{runId}-{sequence}" with ephemeral ports.
+     *       Standalone containers use the "standalone-" prefix instead</li>
      * </ul>
      *
+     * @param browser The browser type of the node
+     * @param vncPort The host VNC port of the node, or null if the daemon assigns it
      * @return Unique container name for the node
      */
-    private String getUniqueNodeName() {
-        return "node-" + getBrowserName(null) + "-" + currentVncPort.get();
+    private String getUniqueNodeName(Browser browser, Integer vncPort) {
+        String prefix = seleniumGridData.isStandaloneMode() ? "standalone-" : "node-";
+        if (vncPort == null) {
+            return prefix + getBrowserName(browser) + "-" + ResourceLabels.CURRENT_RUN_ID + "-" + nodeSequence.incrementAndGet();
+        }
+        return prefix + getBrowserName(browser) + "-" + vncPort;
+    }
+
+    /**
+     * Returns the VNC URL of the given node.
+     *
+     * @param node The node container
+     * @return VNC URL in format "http://localhost:PORT"
+     * @throws IllegalStateException if node is null
+     */
+    private String getVncUrl(NodeContainer node) {
+        requireNode(node);
+        return "http://" + getNodeAddress(node) + ":" + node.getVncPort();
+    }
+
+    /**
+     * Fails fast when a per-node accessor is called on a thread that has not launched a node,
+     * instead of building URLs and names that contain "null".
+     *
+     * @param node The node container of the current thread, may be null
+     * @throws IllegalStateException if node is null
+     */
+    private void requireNode(NodeContainer node) {
+        if (node == null) {
+            String container = seleniumGridData.isStandaloneMode() ? "standalone container" : "node";
+            throw new IllegalStateException("No " + container + " launched on this thread; call launchNode first");
+        }
+    }
+
+    /**
+     * Returns the video container name (and video file name without extension) of the given node.
+     * Recycled nodes get the reuse count appended so every test keeps its own recording.
+     *
+     * @param node The node container
+     * @return Video name in format "video_PORT" or "video_PORT_REUSECOUNT"
+     * @throws IllegalStateException if node is null
+     */
+    private String getVideoName(NodeContainer node) {
+        requireNode(node);
+        String videoName = VIDEO_CONTAINER_NAME + "_" + node.getVncPort();
+        return node.getReuseCount() == 0 ? videoName : videoName + "_" + node.getReuseCount();
     }
 
     /**
@@ -955,44 +2252,75 @@ public class SeleniumGridUtil {
      *   <li>Creates volume binding between host video folder and container /videos directory</li>
      *   <li>Configures environment variables to link with specific node container</li>
      *   <li>Sets custom video filename including VNC port for uniqueness</li>
-     *   <li>Connects video container to the same network as grid components</li>
+     *   <li>Connects video container to the same network as grid components, or to the network namespace of the
+     *       standalone container in standalone mode</li>
      *   <li>Provides feedback about video storage location</li>
      * </ul>
      *
      * <p>The video container automatically starts recording when the linked node container begins browser sessions.
      *
+     * @param node The node container whose display is recorded
      * @throws RuntimeException if image pull or container creation fails
      */
-    private void pullAndCreateVideoContainer() {
+    private void pullAndCreateVideoContainer(NodeContainer node) {
         try {
-            dockerClient.pullImageCmd(VIDEO_IMAGE_NAME)
-                    .exec(new PullImageResultCallback())
-                    .awaitCompletion();
+            pullVideoImage();
+        } catch (Exception e) {
+            log.error("Failed to pull video image", e);
+            return;
+        }
+        createVideoContainer(node);
+    }
 
-            String currentVideoName = VIDEO_CONTAINER_NAME + "_" + currentVncPort.get();
+    /**
+     * Pulls the video recording Docker image, unless the image resolver has it cached.
+     */
+    private void pullVideoImage() {
+        imageResolver.resolve(getImageCatalog().getVideoImage());
+    }
+
+    /**
+     * Creates and starts a video container recording the given node from an already pulled image.
+     *
+     * @param node The node container whose display is recorded
+     */
+    private void createVideoContainer(NodeContainer node) {
+        try {
+            String currentVideoName = getVideoName(node);
+            DockerClient hostClient = getDockerClient(node.getDockerHost());
+            if (isRemote(node)) {
+                getImageResolver(node.getDockerHost()).resolve(getImageCatalog().getVideoImage());
+            }
             // Create a volume binding for /tmp/videos:/videos
             Volume videoVolume = new Volume("/videos");
+            // Standalone containers and nodes on remote hosts have no grid network, so the video container joins
+            // the node's network namespace
+            boolean sharesNodeNetwork = seleniumGridData.isStandaloneMode() || isRemote(node);
             HostConfig hostConfig = HostConfig.newHostConfig()
-                    .withNetworkMode(networkName)
+                    .withNetworkMode(sharesNodeNetwork ? "container:" + node.getContainerId() : networkName)
                     .withBinds(new Bind(seleniumGridData.getVideoFolderAbsolutePath(), videoVolume))
                     .withRestartPolicy(RestartPolicy.onFailureRestart(3)); // Optional: adding similar restart policy as your node
 
             //Define environment variables:
             List<String> videoEnvVars = new ArrayList<>();
-            videoEnvVars.add("DISPLAY_CONTAINER_NAME=" + getUniqueNodeName()); // Link to specific node
+            videoEnvVars.add("DISPLAY_CONTAINER_NAME=" + (sharesNodeNetwork ? "localhost" : node.getContainerName())); // Link to specific node
             videoEnvVars.add("FILE_NAME=" + currentVideoName + ".mp4"); // Set custom video filename
 
             // Create the container
-            CreateContainerResponse videoContainer = dockerClient
-                    .createContainerCmd(VIDEO_IMAGE_NAME)
+            CreateContainerResponse videoContainer = hostClient
+                    .createContainerCmd(getImageCatalog().getVideoImage())
                     .withName(currentVideoName)
+                    .withLabels(ResourceLabels.forRole(ResourceLabels.Role.VIDEO))
                     .withEnv(videoEnvVars)
                     .withHostConfig(hostConfig)
                     .exec();
 
-            videoContainerId.set(videoContainer.getId());
+            node.setVideoContainerId(videoContainer.getId());
+            if (!isRemote(node)) {
+                containerStateTracker.track(videoContainer.getId());
+            }
             // Start the container
-            dockerClient.startContainerCmd(videoContainer.getId()).exec();
+            hostClient.startContainerCmd(videoContainer.getId()).exec();
             log.info("Video recording started. Videos will be saved in: {}", seleniumGridData.getVideoFolderAbsolutePath());
         } catch (Exception e) {
             log.error("Failed to create and start video container", e);
@@ -1010,26 +2338,34 @@ public class SeleniumGridUtil {
      *
      * <p>Implementation details:
      * <ul>
-     *   <li>Sets event bus host to hub container name for internal network communication</li>
+     *   <li>Sets event bus host to hub container name for internal network communication (not in standalone mode)</li>
      *   <li>Configures event bus ports for publish (4442) and subscribe (4443) operations</li>
      *   <li>Sets grid URL for node registration with the hub</li>
+     *   <li>Advertises the container name as node host so the node can be found in the hub status</li>
      *   <li>Enables VNC access without password for convenience</li>
-     *   <li>Configures session timeout (600 seconds) and max sessions (1) per node</li>
+     *   <li>Configures session timeout (600 seconds) and the browser's max sessions per node (1 unless configured),
+     *       overriding the CPU-based limit of the node image for browsers in overrideMaxSessions</li>
      *   <li>Sets screen resolution based on configuration</li>
      *   <li>Disables XVFB for headless mode to improve performance</li>
      * </ul>
      *
+     * @param nodeName The container name of the node
+     * @param browser The browser of the node
      * @return Map of environment variable names to values for node container
      */
-    private Map<String, String> getEnvironmentVariablesOfANode() {
+    private Map<String, String> getEnvironmentVariablesOfANode(String nodeName, Browser browser) {
         Map<String, String> environmentVariables = new HashMap<>();
-        environmentVariables.put("SE_EVENT_BUS_HOST", HUB_NAME);
-        environmentVariables.put("SE_EVENT_BUS_PUBLISH_PORT", "4442");
-        environmentVariables.put("SE_EVENT_BUS_SUBSCRIBE_PORT", "4443");
-        environmentVariables.put("SE_NODE_GRID_URL", "http://localhost:" + hubPort);
+        if (!seleniumGridData.isStandaloneMode()) {
+            environmentVariables.put("SE_EVENT_BUS_HOST", HUB_NAME);
+            environmentVariables.put("SE_EVENT_BUS_PUBLISH_PORT", "4442");
+            environmentVariables.put("SE_EVENT_BUS_SUBSCRIBE_PORT", "4443");
+            environmentVariables.put("SE_NODE_GRID_URL", "http://localhost:" + hubPort);
+        }
+        environmentVariables.put("SE_NODE_HOST", nodeName);
         environmentVariables.put("SE_VNC_NO_PASSWORD", "1");
         environmentVariables.put("SE_NODE_SESSION_TIMEOUT", "600");
-        environmentVariables.put("SE_NODE_MAX_SESSIONS", "1");
+        environmentVariables.put("SE_NODE_MAX_SESSIONS", String.valueOf(getMaxSessions(browser)));
+        environmentVariables.put("SE_NODE_OVERRIDE_MAX_SESSIONS", String.valueOf(seleniumGridData.getOverrideMaxSessions().contains(browser)));
         environmentVariables.put("SE_SCREEN_WIDTH", seleniumGridData.getScreenWidth());
         environmentVariables.put("SE_SCREEN_HEIGHT", seleniumGridData.getScreenHeight());
 
@@ -1048,6 +2384,7 @@ public class SeleniumGridUtil {
      *   <li>Checks if hub container exists before attempting operations</li>
      *   <li>Gracefully stops the container before removal</li>
      *   <li>Uses force removal to ensure container is deleted</li>
+     *   <li>Releases the hub and event bus ports</li>
      *   <li>Provides logging of container operations</li>
      * </ul>
      *
@@ -1060,6 +2397,38 @@ public class SeleniumGridUtil {
         log.info("Stopping and removing hub container: {}", hubContainerId);
         dockerClient.stopContainerCmd(hubContainerId).exec();
         dockerClient.removeContainerCmd(hubContainerId).withForce(true).exec();
+        containerStateTracker.untrack(hubContainerId);
+        releaseAdmission(hubContainerId);
+        releasePort(hubPort);
+        releasePort(eventBusPublishPort);
+        releasePort(eventBusSubscribePort);
+    }
+
+    /**
+     * Returns the Selenium Node Docker image name of the specified browser version from the image catalog,
+     * or the standalone image name in standalone mode.
+     *
+     * @param browser Browser enum value, or null to use configuration default
+     * @param browserVersion Version key in the image catalog, or null for the default version
+     * @return Docker image name of the browser's node
+     */
+    private String getNodeImageName(Browser browser, String browserVersion) {
+        if (seleniumGridData.isStandaloneMode()) {
+            return getImageCatalog().getStandaloneImageName(nvl(browser, seleniumGridData.getBrowser()), browserVersion);
+        }
+        return getImageCatalog().getNodeImageName(nvl(browser, seleniumGridData.getBrowser()), browserVersion);
+    }
+
+    /**
+     * Returns the configured image catalog, or a catalog of floating latest images if none is configured.
+     *
+     * @return The image catalog
+     */
+    private ImageCatalog getImageCatalog() {
+        if (seleniumGridData.getImageCatalog() == null) {
+            seleniumGridData.setImageCatalog(ImageCatalog.builder().build());
+        }
+        return seleniumGridData.getImageCatalog();
     }
 
     /**
@@ -1082,19 +2451,6 @@ public class SeleniumGridUtil {
         if (browser == null) {
             browser = seleniumGridData.getBrowser();
         }
-        switch (browser) {
-            case CHROME:
-                return isArmProcessor() ? "chromium" : "chrome";
-            case FIREFOX:
-                return "firefox";
-            case SAFARI:
-                return "safari";
-            case EDGE:
-                return "edge";
-            case CHROMIUM:
-                return "chromium";
-            default:
-                throw new IllegalArgumentException("Unsupported browser: " + browser);
-        }
+        return ImageCatalog.getImageBrowserName(browser);
     }
 }
@@ -0,0 +1,135 @@
+package com.aarahman;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * StaleResourceJanitor runs the cleanup of resources left behind by earlier runs, either on the calling thread,
+ * in the background or periodically (see {@link JanitorMode}).
+ *
+ * <p>Implementation details:
+ * <ul>
+ *   <li>Runs are single-flight: a run requested while another one is in progress joins the running one,
+ *       so concurrent or back-to-back requests never clean the same resources twice at the same time</li>
+ *   <li>Failures of a run are logged, not thrown</li>
+ *   <li>The scheduler thread is a daemon thread, so a janitor that was not closed never keeps the JVM alive</li>
+ * </ul>
+ *
+ * @author Aarahman
+ * @version 1.0
+ */
+@Slf4j
+class StaleResourceJanitor {
+
+    private final Runnable cleanup;
+
+    private final ExecutorService executor;
+
+    private final AtomicReference<CompletableFuture<Void>> inFlightRun = new AtomicReference<>();
+
+    private volatile boolean completedOnce;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a janitor.
+     *
+     * @param cleanup The cleanup to run. It must leave the resources of the current run alone
+     * @param executor Executor running background cleanups
+     */
+    StaleResourceJanitor(Runnable cleanup, ExecutorService executor) {
+        this.cleanup = cleanup;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a cleanup in the background, or joins the one already running.
+     *
+     * @return Future completed when the cleanup has finished
+     */
+    CompletableFuture<Void> runAsync() {
+        while (true) {
+            CompletableFuture<Void> running = inFlightRun.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Void> run = new CompletableFuture<>();
+            if (inFlightRun.compareAndSet(null, run)) {
+                executor.execute(() -> execute(run));
+                return run;
+            }
+        }
+    }
+
+    /**
+     * Runs a cleanup and waits for it, joining the one already running if there is one.
+     */
+    void run() {
+        try {
+            runAsync().join();
+        } catch (CompletionException ex) {
+            log.error("Stale resource cleanup failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Checks whether a cleanup has completed in this JVM.
+     *
+     * @return true once at least one cleanup has finished
+     */
+    boolean hasCompletedOnce() {
+        return completedOnce;
+    }
+
+    /**
+     * Runs a cleanup now and then at the given interval, until the janitor is closed.
+     * Calling this on a janitor that is already scheduled has no effect.
+     *
+     * @param interval Time between the start of two cleanups
+     */
+    synchronized void schedule(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(DockerExecutors.newDaemonThreadFactory("docknium-janitor"));
+        scheduler.scheduleAtFixedRate(this::run, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Stale resource cleanup scheduled every {}", interval);
+    }
+
+    /**
+     * Stops scheduled cleanups. A cleanup that is running is allowed to finish.
+     */
+    synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    private void execute(CompletableFuture<Void> run) {
+        long start = System.nanoTime();
+        Exception failure = null;
+        try {
+            cleanup.run();
+            completedOnce = true;
+            log.info("Stale resource cleanup completed in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception ex) {
+            failure = ex;
+        }
+        // Cleared before completing, so a caller woken by the completion can start a new run right away
+        inFlightRun.compareAndSet(run, null);
+        if (failure == null) {
+            run.complete(null);
+        } else {
+            run.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that AdmissionController queues launches in arrival order, rejects them on timeout and admits
+ * oversized launches on an idle daemon. The capacity is given directly, so no Docker daemon is needed.
+ */
+public class AdmissionControllerTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private static final Duration LONG_TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    public void queuedLaunchesAreAdmittedInArrivalOrder() throws Exception {
+        AdmissionController admissionController = new AdmissionController(new AdmissionController.Demand(4 * GB, 4), () -> null);
+        AdmissionController.Reservation first = admissionController.admit("first", demand(2), LONG_TIMEOUT);
+
+        CompletableFuture<AdmissionController.Reservation> large = admitAsync(admissionController, "large", demand(3));
+        awaitQueued(admissionController, 1);
+        CompletableFuture<AdmissionController.Reservation> small = admitAsync(admissionController, "small", demand(1));
+        awaitQueued(admissionController, 2);
+
+        Thread.sleep(200);
+        Assert.assertFalse(small.isDone(), "The small launch would fit, but must not overtake the large one");
+
+        first.release();
+        Assert.assertNotNull(large.get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(small.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(admissionController.getQueuedLaunches(), 0);
+    }
+
+    @Test
+    public void launchIsRejectedWhenTheTimeoutExpires() throws Exception {
+        AdmissionController admissionController = new AdmissionController(new AdmissionController.Demand(4 * GB, 4), () -> null);
+        AdmissionController.Reservation full = admissionController.admit("full", demand(4), LONG_TIMEOUT);
+
+        Assert.assertNull(admissionController.admit("late", demand(1), Duration.ofMillis(100)));
+        Assert.assertEquals(admissionController.getQueuedLaunches(), 0, "A rejected launch leaves the queue");
+
+        full.release();
+        full.release();
+        AdmissionController.Reservation whole = admissionController.admit("whole", demand(4), Duration.ZERO);
+        Assert.assertNotNull(whole, "Releasing twice gives the resources back only once");
+        Assert.assertNull(admissionController.admit("more", demand(1), Duration.ZERO));
+    }
+
+    @Test
+    public void oversizedLaunchIsAdmittedOnAnIdleDaemon() throws Exception {
+        AdmissionController admissionController = new AdmissionController(new AdmissionController.Demand(2 * GB, 2), () -> null);
+        AdmissionController.Reservation node = admissionController.admit("node", demand(1), LONG_TIMEOUT);
+
+        CompletableFuture<AdmissionController.Reservation> hub = admitAsync(admissionController, "hub", new AdmissionController.Demand(3 * GB, 1));
+        awaitQueued(admissionController, 1);
+        Assert.assertFalse(hub.isDone());
+
+        node.release();
+        AdmissionController.Reservation hubReservation = hub.get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(hubReservation, "A launch larger than the daemon runs once nothing else does");
+        Assert.assertNull(admissionController.admit("node", demand(1), Duration.ZERO));
+        hubReservation.release();
+        Assert.assertNotNull(admissionController.admit("node", demand(1), Duration.ZERO));
+    }
+
+    @Test
+    public void containersOfOtherRunsAreCounted() throws Exception {
+        AtomicReference<AdmissionController.Demand> external = new AtomicReference<>(demand(3));
+        AdmissionController admissionController = new AdmissionController(new AdmissionController.Demand(4 * GB, 4), external::get);
+
+        Assert.assertNotNull(admissionController.admit("fits", demand(1), Duration.ZERO));
+        Assert.assertNull(admissionController.admit("too much", demand(1), Duration.ofMillis(100)));
+    }
+
+    @Test
+    public void slowDaemonDoesNotHoldTheLock() throws Exception {
+        CountDownLatch daemonAnswers = new CountDownLatch(1);
+        AdmissionController admissionController = new AdmissionController(new AdmissionController.Demand(4 * GB, 4), () -> {
+            try {
+                daemonAnswers.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new AdmissionController.Demand(0, 0);
+        });
+
+        CompletableFuture<AdmissionController.Reservation> reading = admitAsync(admissionController, "reading", demand(1));
+        CompletableFuture<AdmissionController.Reservation> waiting = admitAsync(admissionController, "waiting", demand(1));
+        awaitQueued(admissionController, 2);
+        Assert.assertFalse(reading.isDone());
+        Assert.assertFalse(waiting.isDone());
+
+        daemonAnswers.countDown();
+        Assert.assertNotNull(reading.get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void everyLaunchIsAdmittedWithoutKnownCapacity() throws Exception {
+        AdmissionController admissionController = new AdmissionController(null, () -> null);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(admissionController.admit("node " + i, demand(4), Duration.ZERO));
+        }
+    }
+
+    private static AdmissionController.Demand demand(int gigabytes) {
+        return new AdmissionController.Demand(gigabytes * GB, gigabytes);
+    }
+
+    private static CompletableFuture<AdmissionController.Reservation> admitAsync(AdmissionController admissionController,
+                                                                              String description, AdmissionController.Demand demand) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return admissionController.admit(description, demand, LONG_TIMEOUT);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }, runnable -> new Thread(runnable).start());
+    }
+
+    private static void awaitQueued(AdmissionController admissionController, int launches) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admissionController.getQueuedLaunches() < launches) {
+            Assert.assertTrue(System.nanoTime() < deadline, "Launch was not queued");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that CleanupEngine limits its parallelism and that a removal that never returns cannot stall a cleanup.
+ * The removals are plain callbacks, so no Docker daemon is needed.
+ */
+public class CleanupEngineTest {
+
+    @Test
+    public void hungRemovalIsAbandonedAfterItsTimeout() {
+        CleanupEngine cleanupEngine = new CleanupEngine(1, Duration.ofMillis(200), false);
+        CountDownLatch never = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        CleanupResult result = cleanupEngine.removeAll("containers", Arrays.asList("hung", "ok", "broken"), id -> id, id -> {
+            if (id.equals("hung")) {
+                // Ignores interrupts, like a blocking socket read
+                while (never.getCount() > 0) {
+                    try {
+                        never.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            } else if (id.equals("broken")) {
+                throw new IllegalStateException("No such container");
+            }
+        });
+
+        Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000, "Cleanup must not wait for the hung removal");
+        Assert.assertFalse(result.isSuccessful());
+        Assert.assertTrue(result.getFailures().contains("hung: timed out"), result.getFailures().toString());
+        Assert.assertTrue(result.getFailures().contains("broken: No such container"), result.getFailures().toString());
+        Assert.assertEquals(result.getFailures().size(), 2);
+        never.countDown();
+    }
+
+    @Test
+    public void removalsNeverExceedTheParallelism() {
+        CleanupEngine cleanupEngine = new CleanupEngine(3, Duration.ofSeconds(10), false);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CleanupResult result = cleanupEngine.removeAll("networks", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), String::valueOf, id -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        });
+
+        Assert.assertTrue(result.isSuccessful(), result.toString());
+        Assert.assertTrue(maxRunning.get() <= 3, "At most 3 removals at once, saw " + maxRunning.get());
+    }
+}
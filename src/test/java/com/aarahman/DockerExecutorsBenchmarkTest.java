@@ -0,0 +1,102 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the platform-thread and virtual-thread execution modes of DockerExecutors.
+ * Each task stands in for a blocking docker-java call (pull, start, stop) by sleeping.
+ */
+public class DockerExecutorsBenchmarkTest {
+
+    private static final int CONCURRENT_OPERATIONS = 2000;
+
+    private static final long BLOCKING_CALL_MILLIS = 200;
+
+    @Test
+    public void compareVirtualAndPlatformThreads() throws InterruptedException {
+        if (!DockerExecutors.isVirtualThreadSupported()) {
+            throw new SkipException("Virtual threads require Java 21+");
+        }
+        BenchmarkResult platform = runBenchmark(DockerExecutors.newCachedExecutor("benchmark-platform", false));
+        BenchmarkResult virtual = runBenchmark(DockerExecutors.newCachedExecutor("benchmark-virtual", true));
+
+        Reporter.log("Platform threads: " + platform, true);
+        Reporter.log("Virtual threads:  " + virtual, true);
+
+        Assert.assertTrue(virtual.peakPlatformThreads < platform.peakPlatformThreads,
+                "Virtual-thread mode should need fewer platform threads");
+    }
+
+    @Test
+    public void virtualThreadModeFallsBackToPlatformThreads() throws Exception {
+        ExecutorService executor = DockerExecutors.newCachedExecutor("benchmark-fallback", true);
+        try {
+            Boolean virtual = CompletableFuture.supplyAsync(() -> isVirtual(Thread.currentThread()), executor).get();
+            Assert.assertEquals(virtual.booleanValue(), DockerExecutors.isVirtualThreadSupported());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BenchmarkResult runBenchmark(ExecutorService executor) throws InterruptedException {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> operations = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_OPERATIONS; i++) {
+                operations.add(CompletableFuture.runAsync(DockerExecutorsBenchmarkTest::simulateBlockingDockerCall, executor));
+            }
+            CompletableFuture.allOf(operations.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        long wallClockMillis = (System.nanoTime() - start) / 1_000_000;
+        int peakPlatformThreads = threadMXBean.getPeakThreadCount();
+        // Let the pool's threads die so they do not count towards the next benchmark
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return new BenchmarkResult(wallClockMillis, peakPlatformThreads);
+    }
+
+    private static void simulateBlockingDockerCall() {
+        try {
+            Thread.sleep(BLOCKING_CALL_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException ex) {
+            return false;
+        }
+    }
+
+    private static class BenchmarkResult {
+        private final long wallClockMillis;
+        private final int peakPlatformThreads;
+
+        private BenchmarkResult(long wallClockMillis, int peakPlatformThreads) {
+            this.wallClockMillis = wallClockMillis;
+            this.peakPlatformThreads = peakPlatformThreads;
+        }
+
+        @Override
+        public String toString() {
+            return CONCURRENT_OPERATIONS + " blocking operations in " + wallClockMillis + " ms, peak platform threads: " + peakPlatformThreads;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks how GridStatusClient reads nodes and slots from a hub status payload. The payloads are built in the test,
+ * so neither a hub nor a Docker daemon is needed.
+ */
+public class GridStatusClientTest {
+
+    private final GridStatusClient gridStatusClient = new GridStatusClient();
+
+    @Test
+    public void nodeIsFoundByAdvertisedHost() {
+        Map<String, Object> status = status(
+                node("1", "http://node-chrome-5901:5555", "UP", slot(null)),
+                node("2", "http://node-firefox-5902:5555", "DOWN", slot(null)));
+
+        Assert.assertEquals(gridStatusClient.findNode(status, "node-chrome-5901").get("id"), "1");
+        Assert.assertEquals(gridStatusClient.findNode(status, "NODE-CHROME-5901").get("id"), "1", "Host names are case-insensitive");
+        Assert.assertNull(gridStatusClient.findNode(status, "node-firefox-5902"), "Nodes that are not UP are ignored");
+        Assert.assertNull(gridStatusClient.findNode(status, "node-edge-5903"));
+        Assert.assertNull(gridStatusClient.findNode(null, "node-chrome-5901"), "Unreachable hub");
+    }
+
+    @Test
+    public void nodesSharingAHostAreFoundByPort() {
+        Map<String, Object> status = status(
+                node("1", "http://10.0.0.12:30001", "UP", slot(null)),
+                node("2", "http://10.0.0.12:30002", "UP", slot(null)));
+
+        Assert.assertEquals(gridStatusClient.findNode(status, "10.0.0.12:30002").get("id"), "2");
+        Assert.assertNull(gridStatusClient.findNode(status, "10.0.0.12:30003"));
+    }
+
+    @Test
+    public void freeSlotsAndSessionsAreReadFromTheSlots() {
+        Map<String, Object> busyNode = node("1", "http://node-chrome-5901:5555", "UP", slot("session-1"), slot("session-2"));
+        Map<String, Object> halfBusyNode = node("2", "http://node-chrome-5902:5555", "UP", slot("session-3"), slot(null));
+        Map<String, Object> status = status(busyNode, halfBusyNode);
+
+        Assert.assertFalse(gridStatusClient.hasFreeSlot(busyNode));
+        Assert.assertTrue(gridStatusClient.hasFreeSlot(halfBusyNode));
+        Assert.assertFalse(gridStatusClient.hasFreeSlot(new HashMap<>()), "A node without slots has no free slot");
+        Assert.assertEquals(gridStatusClient.getSessionIds(status, "node-chrome-5901"), Arrays.asList("session-1", "session-2"));
+        Assert.assertEquals(gridStatusClient.getSessionIds(status, "node-chrome-5902"), Collections.singletonList("session-3"));
+        Assert.assertEquals(gridStatusClient.getSessionIds(status, "node-chrome-5903"), Collections.emptyList());
+    }
+
+    @Test
+    public void pollStopsWhenTheConditionHoldsOrTheTimeoutExpires() {
+        AtomicInteger evaluations = new AtomicInteger();
+        Duration waited = GridStatusClient.poll(() -> evaluations.incrementAndGet() == 3,
+                Duration.ofMillis(1), Duration.ofMillis(4), Duration.ofSeconds(5));
+        Assert.assertNotNull(waited);
+        Assert.assertEquals(evaluations.get(), 3);
+
+        Assert.assertNull(GridStatusClient.poll(() -> false, Duration.ofMillis(10), Duration.ofMillis(20), Duration.ofMillis(100)));
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> status(Map<String, Object>... nodes) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("ready", true);
+        status.put("nodes", Arrays.asList(nodes));
+        return status;
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> node(String id, String uri, String availability, Map<String, Object>... slots) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("id", id);
+        node.put("uri", uri);
+        node.put("availability", availability);
+        node.put("slots", Arrays.asList(slots));
+        return node;
+    }
+
+    private static Map<String, Object> slot(String sessionId) {
+        Map<String, Object> slot = new HashMap<>();
+        if (sessionId != null) {
+            slot.put("session", Collections.singletonMap("sessionId", sessionId));
+        }
+        return slot;
+    }
+}
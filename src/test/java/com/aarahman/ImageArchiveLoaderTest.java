@@ -0,0 +1,98 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Checks that ImageArchiveLoader finds the manifest of {@code docker save} archives behind their layers and caches
+ * the tags it read. The archives are small tar files written by the test, so no Docker daemon is needed.
+ */
+public class ImageArchiveLoaderTest {
+
+    private static final String MANIFEST = "[{\"Config\":\"blobs/sha256/1234\",\"RepoTags\":[\"selenium/hub:4.31.0\",\"selenium/hub:latest\"],"
+            + "\"Layers\":[\"blobs/sha256/5678\"]}]";
+
+    @Test
+    public void manifestIsFoundBehindTheLayers() throws IOException {
+        File folder = Files.createTempDirectory("docknium-archives").toFile();
+        File plain = writeArchive(new File(folder, "hub.tar"), MANIFEST);
+        File compressed = writeArchive(new File(folder, "hub.tar.gz"), MANIFEST);
+
+        Assert.assertEquals(ImageArchiveLoader.readManifest(plain), MANIFEST);
+        Assert.assertEquals(ImageArchiveLoader.readManifest(compressed), MANIFEST);
+        Assert.assertEquals(ImageArchiveLoader.getRepoTags(compressed), Arrays.asList("selenium/hub:4.31.0", "selenium/hub:latest"));
+    }
+
+    @Test
+    public void archiveWithoutManifestHasNoTags() throws IOException {
+        File folder = Files.createTempDirectory("docknium-archives").toFile();
+        File archive = writeArchive(new File(folder, "empty.tar"), null);
+
+        Assert.assertNull(ImageArchiveLoader.readManifest(archive));
+        Assert.assertEquals(ImageArchiveLoader.getRepoTags(archive), Collections.emptyList());
+    }
+
+    @Test
+    public void tagsAreReadAgainOnlyWhenTheArchiveChanges() throws IOException {
+        File folder = Files.createTempDirectory("docknium-archives").toFile();
+        File archive = writeArchive(new File(folder, "hub.tgz"), MANIFEST);
+        Assert.assertEquals(ImageArchiveLoader.getRepoTags(archive).size(), 2);
+
+        // Same size and modification time: the cached tags are used and the unreadable content is never opened
+        long lastModified = archive.lastModified();
+        Files.write(archive.toPath(), new byte[(int) archive.length()]);
+        Assert.assertTrue(archive.setLastModified(lastModified));
+        Assert.assertEquals(ImageArchiveLoader.getRepoTags(archive).size(), 2);
+
+        writeArchive(archive, MANIFEST.replace(",\"selenium/hub:latest\"", ""));
+        Assert.assertTrue(archive.setLastModified(lastModified + 10_000));
+        Assert.assertEquals(ImageArchiveLoader.getRepoTags(archive), Collections.singletonList("selenium/hub:4.31.0"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void digestPinnedImageIsRejected() throws IOException {
+        File folder = Files.createTempDirectory("docknium-archives").toFile();
+        writeArchive(new File(folder, "hub.tar"), MANIFEST);
+
+        new ImageArchiveLoader(null, folder).load("selenium/hub@sha256:0123456789abcdef");
+    }
+
+    /**
+     * Writes a tar archive with a layer entry followed by the manifest, gzip compressed if the name asks for it.
+     */
+    private static File writeArchive(File archive, String manifest) throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, "5678/layer.tar", new byte[1500]);
+        if (manifest != null) {
+            writeEntry(tar, "manifest.json", manifest.getBytes(StandardCharsets.UTF_8));
+        }
+        tar.write(new byte[1024]);
+        try (OutputStream outputStream = archive.getName().endsWith(".tar")
+                ? new FileOutputStream(archive) : new GZIPOutputStream(new FileOutputStream(archive))) {
+            outputStream.write(tar.toByteArray());
+        }
+        return archive;
+    }
+
+    private static void writeEntry(ByteArrayOutputStream tar, String name, byte[] content) throws IOException {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        byte[] size = String.format("%011o", content.length).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(size, 0, header, 124, size.length);
+        tar.write(header);
+        tar.write(content);
+        tar.write(new byte[(512 - content.length % 512) % 512]);
+    }
+}
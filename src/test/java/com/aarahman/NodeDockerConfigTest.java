@@ -0,0 +1,43 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Checks the node-docker configuration rendered by NodeDockerConfig. Rendering is plain text, so no Docker daemon
+ * is needed.
+ */
+public class NodeDockerConfigTest {
+
+    @Test
+    public void everyDockerBrowserIsMappedToItsImage() {
+        Map<Browser, String> browserImages = new EnumMap<>(Browser.class);
+        browserImages.put(Browser.CHROME, "selenium/standalone-chrome:4.27.0");
+        browserImages.put(Browser.EDGE, "selenium/standalone-edge:4.27.0");
+        browserImages.put(Browser.SAFARI, "selenium/standalone-safari:4.27.0");
+
+        String toml = NodeDockerConfig.render(browserImages, 8, 300, "selenium/video:ffmpeg-7.1");
+
+        Assert.assertTrue(toml.startsWith("[docker]\nconfigs = [\n"));
+        Assert.assertTrue(toml.contains("    \"selenium/standalone-chrome:4.27.0\", '{\"browserName\": \"chrome\", \"platformName\": \"linux\"}',\n"));
+        Assert.assertTrue(toml.contains("    \"selenium/standalone-edge:4.27.0\", '{\"browserName\": \"MicrosoftEdge\", \"platformName\": \"linux\"}',\n"));
+        Assert.assertFalse(toml.contains("safari"), "Safari cannot run in Docker");
+        Assert.assertTrue(toml.contains("video-image = \"selenium/video:ffmpeg-7.1\"\n"));
+        Assert.assertTrue(toml.contains("\n[node]\n"));
+        Assert.assertTrue(toml.contains("override-max-sessions = true\nmax-sessions = 8\nsession-timeout = 300\n"));
+    }
+
+    @Test
+    public void recordingIsDisabledWithoutVideoImage() {
+        Map<Browser, String> browserImages = new EnumMap<>(Browser.class);
+        browserImages.put(Browser.FIREFOX, "selenium/standalone-firefox:latest");
+
+        String toml = NodeDockerConfig.render(browserImages, 1, 600, null);
+
+        Assert.assertTrue(toml.contains("\"browserName\": \"firefox\""));
+        Assert.assertTrue(toml.contains("video-image = \"false\"\n"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that NodePlacement spreads nodes over Docker hosts by free capacity and never exceeds a host's capacity.
+ * The hosts are never contacted, placement only looks at their configured capacities.
+ */
+public class NodePlacementTest {
+
+    @Test
+    public void nodesGoToTheHostWithTheMostFreeCapacity() {
+        DockerHost primary = DockerHost.builder().capacity(2).build();
+        DockerHost runner = DockerHost.builder().endpoint("tcp://runner-2:2375").capacity(4).build();
+        NodePlacement nodePlacement = new NodePlacement(Arrays.asList(primary, runner));
+
+        Assert.assertSame(nodePlacement.place(), runner, "4 free places beat 2");
+        Assert.assertSame(nodePlacement.place(), runner, "3 free places beat 2");
+        Assert.assertSame(nodePlacement.place(), primary, "Ties go to the host listed first");
+        Assert.assertSame(nodePlacement.place(), runner);
+        Assert.assertSame(nodePlacement.place(), primary);
+        Assert.assertSame(nodePlacement.place(), runner);
+        Assert.assertNull(nodePlacement.place(), "Every host is full");
+
+        nodePlacement.release(primary);
+        Assert.assertEquals(nodePlacement.getFreeCapacity(primary), 1);
+        Assert.assertSame(nodePlacement.place(), primary, "A released place can be taken again");
+    }
+
+    @Test
+    public void concurrentPlacementsNeverExceedCapacity() throws InterruptedException {
+        DockerHost first = DockerHost.builder().endpoint("tcp://runner-1:2375").capacity(7).build();
+        DockerHost second = DockerHost.builder().endpoint("tcp://runner-2:2375").capacity(5).build();
+        NodePlacement nodePlacement = new NodePlacement(Arrays.asList(first, second));
+        Map<DockerHost, AtomicInteger> placed = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                DockerHost host = nodePlacement.place();
+                if (host == null) {
+                    rejected.incrementAndGet();
+                } else {
+                    placed.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(placed.get(first).get(), 7);
+        Assert.assertEquals(placed.get(second).get(), 5);
+        Assert.assertEquals(rejected.get(), 8);
+    }
+}
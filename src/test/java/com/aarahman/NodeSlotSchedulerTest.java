@@ -0,0 +1,177 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that NodeSlotScheduler packs sessions onto the fullest node, never hands out more slots than a node has
+ * and never hands out a slot of a retired node, and that launches arriving while a node is provisioned share it.
+ * The nodes are plain handles, so no Docker daemon is needed.
+ */
+public class NodeSlotSchedulerTest {
+
+    @Test
+    public void fullestNodeIsFilledFirst() {
+        NodeSlotScheduler scheduler = new NodeSlotScheduler();
+        NodeContainer first = node("node-chrome-1");
+        NodeContainer second = node("node-chrome-2");
+        scheduler.register(first, 3);
+        scheduler.register(second, 3);
+
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), first);
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), first, "2 of 3 slots in use beat 1 of 3");
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), second, "The first node is full");
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), second);
+        Assert.assertNull(scheduler.acquire(Browser.CHROME), "Every node is full");
+        Assert.assertNull(scheduler.acquire(Browser.FIREFOX), "No node of the browser");
+
+        Assert.assertFalse(scheduler.release(first));
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), first, "A released slot can be taken again");
+    }
+
+    @Test
+    public void lastReleaseRetiresTheNode() {
+        NodeSlotScheduler scheduler = new NodeSlotScheduler();
+        NodeContainer node = node("node-chrome-1");
+        scheduler.register(node, 2);
+        Assert.assertSame(scheduler.acquire(Browser.CHROME), node);
+
+        Assert.assertFalse(scheduler.release(node), "Another thread still uses the node");
+        Assert.assertTrue(scheduler.release(node), "The last user may remove the node");
+        Assert.assertNull(scheduler.acquire(Browser.CHROME), "A retired node hands out no slot");
+        Assert.assertTrue(scheduler.release(node("node-chrome-2")), "A node that is not shared may always be removed");
+    }
+
+    @Test
+    public void concurrentAcquiresNeverExceedMaxSessions() throws Exception {
+        NodeSlotScheduler scheduler = new NodeSlotScheduler();
+        NodeContainer node = node("node-chrome-1");
+        scheduler.register(node, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<NodeContainer>> acquires = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            acquires.add(executor.submit(() -> {
+                start.await();
+                return scheduler.acquire(Browser.CHROME);
+            }));
+        }
+        start.countDown();
+        int acquired = 0;
+        for (Future<NodeContainer> acquire : acquires) {
+            if (acquire.get(10, TimeUnit.SECONDS) != null) {
+                acquired++;
+            }
+        }
+        Assert.assertEquals(acquired, 3, "The registering thread holds the fourth slot");
+
+        List<Callable<Boolean>> releases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            releases.add(() -> scheduler.release(node));
+        }
+        int retired = 0;
+        for (Future<Boolean> release : executor.invokeAll(releases)) {
+            if (release.get()) {
+                retired++;
+            }
+        }
+        executor.shutdown();
+        Assert.assertEquals(retired, 1, "Exactly one thread removes the node");
+        Assert.assertNull(scheduler.acquire(Browser.CHROME));
+    }
+
+    @Test
+    public void slotIsNeverTakenOnANodeBeingRetired() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 2_000; i++) {
+            NodeSlotScheduler scheduler = new NodeSlotScheduler();
+            NodeContainer node = node("node-chrome-" + i);
+            scheduler.register(node, 2);
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Boolean> release = executor.submit(() -> {
+                start.await();
+                return scheduler.release(node);
+            });
+            Future<NodeContainer> acquire = executor.submit(() -> {
+                start.await();
+                return scheduler.acquire(Browser.CHROME);
+            });
+            start.countDown();
+            boolean retired = release.get(10, TimeUnit.SECONDS);
+            NodeContainer acquired = acquire.get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(retired != (acquired != null), "Either the node is retired or it hands out the slot, never both");
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void concurrentLaunchesShareANodeThatIsStillPending() throws Exception {
+        NodeSlotScheduler scheduler = new NodeSlotScheduler();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch allReserved = new CountDownLatch(8);
+        AtomicInteger provisioned = new AtomicInteger();
+        List<Future<NodeContainer>> launches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            launches.add(executor.submit(() -> {
+                start.await();
+                NodeSlotScheduler.Slot slot = scheduler.reserve(Browser.CHROME, 4);
+                allReserved.countDown();
+                if (!slot.provisioner) {
+                    return slot.pendingNode.await();
+                }
+                // Provisioning only ends once every thread has its slot, so all of them arrived while it was pending
+                allReserved.await();
+                NodeContainer node = node("node-chrome-" + provisioned.incrementAndGet());
+                scheduler.complete(slot.pendingNode, node);
+                return node;
+            }));
+        }
+        start.countDown();
+        Map<NodeContainer, Integer> sessionsPerNode = new HashMap<>();
+        for (Future<NodeContainer> launch : launches) {
+            sessionsPerNode.merge(launch.get(10, TimeUnit.SECONDS), 1, Integer::sum);
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(provisioned.get(), 2, "8 sessions fit on 2 nodes of 4 slots");
+        Assert.assertEquals(new ArrayList<>(sessionsPerNode.values()), Arrays.asList(4, 4));
+        Assert.assertNull(scheduler.acquire(Browser.CHROME), "Both nodes are full");
+    }
+
+    @Test
+    public void failedPendingNodeDropsItsReservations() throws Exception {
+        NodeSlotScheduler scheduler = new NodeSlotScheduler();
+        NodeSlotScheduler.Slot provisioner = scheduler.reserve(Browser.CHROME, 2);
+        NodeSlotScheduler.Slot waiter = scheduler.reserve(Browser.CHROME, 2);
+        Assert.assertTrue(provisioner.provisioner);
+        Assert.assertFalse(waiter.provisioner);
+        Assert.assertSame(waiter.pendingNode, provisioner.pendingNode);
+
+        CompletableFuture<NodeContainer> waiting = CompletableFuture.supplyAsync(waiter.pendingNode::await);
+        scheduler.complete(provisioner.pendingNode, null);
+        Assert.assertNull(waiting.get(10, TimeUnit.SECONDS), "The waiting thread learns that the node is not coming");
+
+        NodeSlotScheduler.Slot retry = scheduler.reserve(Browser.CHROME, 2);
+        Assert.assertTrue(retry.provisioner, "The next launch provisions a new node");
+        Assert.assertNotSame(retry.pendingNode, provisioner.pendingNode);
+    }
+
+    private static NodeContainer node(String containerName) {
+        return NodeContainer.builder().browser(Browser.CHROME).containerName(containerName).build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.aarahman;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks that PortAllocator never hands out a port twice, also under concurrent allocation.
+ */
+public class PortAllocatorTest {
+
+    private static final int FIRST_PORT = 31000;
+
+    private static final int LAST_PORT = 31099;
+
+    @Test
+    public void concurrentAllocationsGetDistinctPorts() {
+        PortAllocator portAllocator = new PortAllocator(FIRST_PORT, LAST_PORT);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<CompletableFuture<Integer>> allocations = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                allocations.add(CompletableFuture.supplyAsync(portAllocator::allocate, executor));
+            }
+            Set<Integer> ports = new HashSet<>();
+            allocations.forEach(allocation -> ports.add(allocation.join()));
+
+            Assert.assertEquals(ports.size(), 50, "Every allocation should get its own port");
+            ports.forEach(port -> Assert.assertTrue(port >= FIRST_PORT && port <= LAST_PORT, "Port outside range: " + port));
+            ports.forEach(portAllocator::release);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void releasedPortsCanBeAllocatedAgain() {
+        PortAllocator portAllocator = new PortAllocator(FIRST_PORT, FIRST_PORT + 1);
+        int first = portAllocator.allocate();
+        int second = portAllocator.allocate();
+        Assert.assertNotEquals(first, second);
+        Assert.assertThrows(IllegalStateException.class, portAllocator::allocate);
+
+        portAllocator.release(first);
+        Assert.assertEquals(portAllocator.allocate(), first);
+        portAllocator.release(first);
+        portAllocator.release(second);
+    }
+}